@@ -0,0 +1,153 @@
+#!/usr/bin/env bash
+
+# usage: ./runappend.sh [COUNT]
+# runs Dude while other programs append COUNT tasks each to its save file at full speed, once
+# with Dude's usual saves, which replace the file, and once with saves in place.
+# With the usual saves, two appenders that hold the lock file and open the save file for each
+# line run together. Then a line is left unfinished while Dude saves, and finished a second
+# later.
+# With saves in place, an appender that holds the lock file and keeps the save file open, and
+# a shell appender that keeps it open without locking, run together; then a shell appender
+# that writes each line in two parts without locking runs on its own, as unlocked writers
+# would split each other's lines.
+# Throughout, Dude adds, marks, unmarks and deletes tasks, so that the file is appended to and
+# saved. Every task must end up in Dude's list and in the save file exactly once, and Dude
+# must not get stuck saving.
+COUNT=${1:-2000}
+SEEDS=200
+OWN=50
+
+# create bin directory if it doesn't exist
+if [ ! -d "./bin" ]
+then
+    mkdir ./bin
+fi
+
+# compile Dude and the soak test into the bin folder, terminates if error occurred
+if ! javac -Xlint:none -d ./bin $(find ../src/main/java ./src -name '*.java')
+then
+    echo "********** BUILD FAILURE **********"
+    exit 1
+fi
+
+rm -rf ./work
+mkdir -p ./work
+BIN=$(cd ./bin && pwd)
+FAILED=0
+
+# start Dude in a fresh folder, reading its commands from a pipe, with the options given
+start_dude() {
+    mkdir -p "$1/data"
+    cd "$1" || exit 1
+    for i in $(seq 1 $SEEDS); do echo "T | 0 | seed-$i"; done > data/dude.txt
+    mkfifo commands
+    java -classpath "$BIN" dude.Dude "${@:2}" < commands > output.txt &
+    DUDE=$!
+    exec 3>commands
+    sleep 1
+}
+
+# give Dude time to pick up the last appends, then save once more, list everything and stop
+stop_dude() {
+    sleep 2
+    echo "mark 1" >&3
+    echo "list" >&3
+    echo "bye" >&3
+    exec 3>&-
+    for i in $(seq 1 30); do
+        kill -0 $DUDE 2>/dev/null || break
+        sleep 1
+    done
+    if kill -0 $DUDE 2>/dev/null; then
+        echo "Dude did not exit after bye"
+        kill $DUDE
+        FAILED=1
+    fi
+    wait $DUDE
+}
+
+# the first tasks are seeds, so deleting task 1 only ever removes a seed
+send_commands() {
+    for i in $(seq "$1" "$2"); do
+        echo "todo own-$i" >&3
+        echo "mark 1" >&3
+        echo "unmark 1" >&3
+        echo "delete 1" >&3
+        sleep 0.02
+    done
+}
+
+wait_for_appenders() {
+    wait $(jobs -p | grep -v "^$DUDE$")
+}
+
+check() {
+    # check NAME PATTERN EXPECTED: the number of distinct tasks matching PATTERN in the list
+    # and in the save file, and that none of them appears twice
+    local listed saved distinct
+    listed=$(grep -cE "^[0-9]+\.\[T\]\[.\] $2$" output.txt)
+    saved=$(grep -cE "^T \| . \| $2$" data/dude.txt)
+    distinct=$(grep -E "^T \| . \| $2$" data/dude.txt | sort -u | wc -l)
+    echo "$1: expected $3, listed $listed, saved $saved"
+    if [ "$listed" -ne "$3" ] || [ "$saved" -ne "$3" ] || [ "$distinct" -ne "$3" ]; then
+        FAILED=1
+    fi
+}
+
+echo "saves that replace the file:"
+start_dude ./work/replace
+java -classpath "$BIN" dude.soak.LockedAppender data/dude.txt lockedA "$COUNT" &
+java -classpath "$BIN" dude.soak.LockedAppender data/dude.txt lockedB "$COUNT" &
+send_commands 1 $OWN
+wait_for_appenders
+
+# once Dude has caught up, it must save around a line that is still being written,
+# without waiting for it
+sleep 2
+printf 'T | 0 | partial' >> data/dude.txt
+echo "mark 1" >&3
+echo "unmark 1" >&3
+sleep 1
+printf -- '-append\n' >> data/dude.txt
+stop_dude
+
+check "locked appender A" "lockedA-[0-9]+" "$COUNT"
+check "locked appender B" "lockedB-[0-9]+" "$COUNT"
+check "partly written line" "partial-append" 1
+check "Dude's own tasks" "own-[0-9]+" "$OWN"
+check "seeds left after deletes" "seed-[0-9]+" $((SEEDS - OWN))
+cd ../..
+
+echo "saves in place:"
+start_dude ./work/inplace --in-place
+java -classpath "$BIN" dude.soak.LockedAppender data/dude.txt lockedOpen "$COUNT" open &
+(
+    exec 4>>data/dude.txt
+    for i in $(seq 1 "$COUNT"); do echo "T | 0 | open-$i" >&4; done
+) &
+send_commands 1 $((OWN / 2))
+wait_for_appenders
+
+(
+    exec 5>>data/dude.txt
+    for i in $(seq 1 "$COUNT"); do printf 'T | 0 | spl' >&5; printf "it-$i\n" >&5; done
+) &
+send_commands $((OWN / 2 + 1)) $OWN
+wait_for_appenders
+stop_dude
+
+check "locked appender keeping the file open" "lockedOpen-[0-9]+" "$COUNT"
+check "unlocked open appender" "open-[0-9]+" "$COUNT"
+check "split-line appender" "split-[0-9]+" "$COUNT"
+check "Dude's own tasks" "own-[0-9]+" "$OWN"
+check "seeds left after deletes" "seed-[0-9]+" $((SEEDS - OWN))
+cd ../..
+
+if [ $FAILED -eq 0 ]
+then
+    echo "Test result: PASSED"
+    exit 0
+else
+    echo "Test result: FAILED"
+    exit 1
+fi
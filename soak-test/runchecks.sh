@@ -0,0 +1,40 @@
+#!/usr/bin/env bash
+
+# usage: ./runchecks.sh
+# runs every soak test with short settings, each under the change request it checks, and
+# lists which passed, so that a change can be checked against all of them with one command.
+# Each line below is: request, script, arguments.
+CHECKS=(
+    "user-027 ./runappend.sh 500"
+    "user-029 ./runsnapshot.sh 50000"
+    "user-029 ./runscaling.sh 5000 1 1 2"
+    "user-030 ./runcrash.sh 100 42 2000 50"
+    "user-032 ./runwheel.sh 100000"
+    "user-033 ./runrecount.sh 50000"
+    "user-034 ./runsoak.sh 10000 2000"
+)
+
+cd "$(dirname "$0")" || exit 1
+SUMMARY=()
+FAILED=0
+for check in "${CHECKS[@]}"; do
+    read -r request script args <<< "$check"
+    echo "********** $request: $script $args **********"
+    if $script $args; then
+        SUMMARY+=("PASSED  $request  $script $args")
+    else
+        SUMMARY+=("FAILED  $request  $script $args")
+        FAILED=1
+    fi
+    echo
+done
+
+printf '%s\n' "${SUMMARY[@]}"
+if [ $FAILED -eq 0 ]
+then
+    echo "Test result: PASSED"
+    exit 0
+else
+    echo "Test result: FAILED"
+    exit 1
+fi
@@ -0,0 +1,37 @@
+#!/usr/bin/env bash
+
+# usage: ./runcrash.sh [ROUNDS] [SEED] [TASKS] [SAVES]
+# crashes a program that appends and saves tasks the way Dude does at random points, with
+# Dude's usual saves and with saves in place, and checks that Dude recovers every task that
+# was saved, then measures how long each kind of save of TASKS tasks takes
+ROUNDS=${1:-300}
+SEED=${2:-42}
+TASKS=${3:-10000}
+SAVES=${4:-200}
+
+# create bin directory if it doesn't exist
+if [ ! -d "./bin" ]
+then
+    mkdir ./bin
+fi
+
+# compile Dude and the soak test into the bin folder, terminates if error occurred
+if ! javac -Xlint:none -d ./bin $(find ../src/main/java ./src -name '*.java')
+then
+    echo "********** BUILD FAILURE **********"
+    exit 1
+fi
+
+# run in a fresh work folder so that the crashed program saves to work/data/dude.txt
+rm -rf ./work
+mkdir -p ./work
+cd ./work || exit 1
+echo "saves that replace the file:"
+java -classpath ../bin dude.soak.CrashHarness crash "$ROUNDS" "$SEED"
+RESULT=$?
+echo
+echo "saves in place:"
+java -classpath ../bin dude.soak.CrashHarness crash "$ROUNDS" "$SEED" in-place || RESULT=1
+echo
+java -classpath ../bin dude.soak.CrashHarness latency "$TASKS" "$SAVES"
+exit $RESULT
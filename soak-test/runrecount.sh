@@ -0,0 +1,23 @@
+#!/usr/bin/env bash
+
+# usage: ./runrecount.sh [OPERATIONS] [SEED] [CHECK_EVERY]
+# adds, deletes, marks, unmarks and reprioritises tasks at random while moving the clock,
+# and checks the counts behind the summary command against a full recount of the list
+OPERATIONS=${1:-200000}
+SEED=${2:-7}
+CHECK_EVERY=${3:-10}
+
+# create bin directory if it doesn't exist
+if [ ! -d "./bin" ]
+then
+    mkdir ./bin
+fi
+
+# compile Dude and the soak test into the bin folder, terminates if error occurred
+if ! javac -Xlint:none -d ./bin $(find ../src/main/java ./src -name '*.java')
+then
+    echo "********** BUILD FAILURE **********"
+    exit 1
+fi
+
+java -classpath ./bin dude.soak.RecountHarness "$OPERATIONS" "$SEED" "$CHECK_EVERY"
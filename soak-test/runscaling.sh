@@ -0,0 +1,28 @@
+#!/usr/bin/env bash
+
+# usage: ./runscaling.sh [TASKS] [SECONDS] [THREADS...]
+# runs list and find readers against a task list that is being changed and saved, checks
+# every answer they get, and reports the read throughput for each number of readers, with
+# and without the readers taking the save file lock
+TASKS=${1:-20000}
+SECONDS_PER_RUN=${2:-3}
+shift 2 2>/dev/null
+THREADS=${*:-1 2 4 8}
+
+# create bin directory if it doesn't exist
+if [ ! -d "./bin" ]
+then
+    mkdir ./bin
+fi
+
+# compile Dude and the soak test into the bin folder, terminates if error occurred
+if ! javac -Xlint:none -d ./bin $(find ../src/main/java ./src -name '*.java')
+then
+    echo "********** BUILD FAILURE **********"
+    exit 1
+fi
+
+# run in a fresh work folder so that the writer saves to work/data/dude.txt
+rm -rf ./work
+mkdir -p ./work
+cd ./work && java -classpath ../bin dude.soak.ReadScalingHarness "$TASKS" "$SECONDS_PER_RUN" $THREADS
@@ -0,0 +1,24 @@
+#!/usr/bin/env bash
+
+# usage: ./runsnapshot.sh [OPERATIONS] [SEED] [CHECK_EVERY]
+# adds, deletes, marks, unmarks and reprioritises tasks at random, checks the list against
+# an ArrayList and that snapshots taken along the way never change, then times deletes
+# from lists of growing size
+OPERATIONS=${1:-100000}
+SEED=${2:-7}
+CHECK_EVERY=${3:-1000}
+
+# create bin directory if it doesn't exist
+if [ ! -d "./bin" ]
+then
+    mkdir ./bin
+fi
+
+# compile Dude and the soak test into the bin folder, terminates if error occurred
+if ! javac -Xlint:none -d ./bin $(find ../src/main/java ./src -name '*.java')
+then
+    echo "********** BUILD FAILURE **********"
+    exit 1
+fi
+
+java -classpath ./bin dude.soak.SnapshotHarness "$OPERATIONS" "$SEED" "$CHECK_EVERY"
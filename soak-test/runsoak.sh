@@ -0,0 +1,33 @@
+#!/usr/bin/env bash
+
+# usage: ./runsoak.sh [TASKS] [COMMANDS] [SEED] [MIX] [REPORT_EVERY]
+# starts Dude with a generated save file of TASKS tasks, replays COMMANDS generated
+# commands against it and reports throughput, latency, heap and save file size
+TASKS=${1:-100000}
+COMMANDS=${2:-20000}
+SEED=${3:-42}
+MIX=${4:-todo=25,deadline=15,event=10,mark=20,delete=10,find=10,list=5,next=5}
+REPORT_EVERY=${5:-2000}
+
+# create bin directory if it doesn't exist
+if [ ! -d "./bin" ]
+then
+    mkdir ./bin
+fi
+
+# compile Dude and the soak test into the bin folder, terminates if error occurred
+if ! javac -Xlint:none -d ./bin $(find ../src/main/java ./src -name '*.java')
+then
+    echo "********** BUILD FAILURE **********"
+    exit 1
+fi
+
+# generate the save file and the commands into a fresh work folder
+rm -rf ./work
+mkdir -p ./work/data
+java -classpath ./bin dude.soak.WorkloadGenerator fixture "$TASKS" "$SEED" > ./work/data/dude.txt
+java -classpath ./bin dude.soak.WorkloadGenerator commands "$COMMANDS" "$SEED" "$TASKS" "$MIX" > ./work/commands.txt
+echo "Replaying $COMMANDS commands against $TASKS tasks (seed $SEED, mix $MIX)"
+
+# run Dude in the work folder so that it saves to work/data/dude.txt
+cd ./work && java -classpath ../bin dude.soak.SoakHarness commands.txt "$REPORT_EVERY"
@@ -0,0 +1,22 @@
+#!/usr/bin/env bash
+
+# usage: ./runwheel.sh [OPERATIONS] [SEED]
+# schedules, cancels and expires reminder timers at random, checking the timing wheel against
+# a simple model, then checks that reminders keep going off after one of them fails
+OPERATIONS=${1:-300000}
+SEED=${2:-7}
+
+# create bin directory if it doesn't exist
+if [ ! -d "./bin" ]
+then
+    mkdir ./bin
+fi
+
+# compile Dude and the soak test into the bin folder, terminates if error occurred
+if ! javac -Xlint:none -d ./bin $(find ../src/main/java ./src -name '*.java')
+then
+    echo "********** BUILD FAILURE **********"
+    exit 1
+fi
+
+java -classpath ./bin dude.soak.TimingWheelHarness "$OPERATIONS" "$SEED"
@@ -0,0 +1,460 @@
+package dude.soak;
+
+import dude.DudeException;
+import dude.Storage;
+import dude.task.Task;
+import dude.task.Todo;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+/**
+ * Crashes a program that saves tasks the way Dude does at random points, and checks that
+ * Dude's start-up recovery then loads a list that the program had saved, or was saving,
+ * without losing any task that had been saved.
+ * Two kinds of crash are made. A writer process is killed outright while it appends and
+ * saves. As the killed process's writes still reach the disk, the harness also cuts a save
+ * or append off at a random byte, leaving the files as a crash of the whole machine at that
+ * byte would: a cut-off line, a half-written temporary file, a tail of NUL bytes or, when
+ * saves are made in place, a half-rewritten data file. Some rounds also put a malformed line
+ * in the middle of the file, as a careless program might, and some append a line to the
+ * file after a save is cut off, as another program might before Dude starts again.
+ * The harness can also measure how long saves take, both replacing the file and in place
+ * with the journal, next to rewriting the file in place with no journal.
+ */
+public class CrashHarness {
+    private static final Path SAVE_FILE = Paths.get("data", "dude.txt");
+    private static final Path IN_PLACE_FILE = Paths.get("data", "inplace.txt");
+    private static final Path WRITER_OUTPUT = Paths.get("writer.txt");
+    private static final long WRITER_START_TIMEOUT_MILLIS = 10000;
+    private static final String IN_PLACE_OPTION = "in-place";
+    private static final int SEED_TASKS = 200;
+    private static final int MAX_KILL_DELAY_MILLIS = 40;
+    private static final int MAX_OPERATIONS_BEFORE_TEAR = 30;
+    private static final double NANOS_PER_MILLI = 1e6;
+
+    private final Random random;
+    private final boolean isSavedInPlace;
+    private final Map<String, Integer> outcomes = new TreeMap<>();
+    private int failureCount;
+
+    private CrashHarness(long seed, boolean isSavedInPlace) {
+        this.random = new Random(seed);
+        this.isSavedInPlace = isSavedInPlace;
+    }
+
+    /**
+     * Usage: {@code CrashHarness crash ROUNDS SEED [in-place]}, {@code CrashHarness latency TASKS SAVES}
+     * or, to run the writer process that is killed, {@code CrashHarness writer SEED [in-place]}.
+     */
+    public static void main(String[] args) throws Exception {
+        if (args.length < 2) {
+            System.err.println("Usage: CrashHarness crash ROUNDS SEED [in-place] | latency TASKS SAVES"
+                    + " | writer SEED [in-place]");
+            System.exit(1);
+        }
+        switch (args[0]) {
+        case "writer":
+            runWriter(Long.parseLong(args[1]), args.length > 2 && args[2].equals(IN_PLACE_OPTION));
+            break;
+        case "crash":
+            CrashHarness harness = new CrashHarness(Long.parseLong(args[2]),
+                    args.length > 3 && args[3].equals(IN_PLACE_OPTION));
+            harness.crash(Integer.parseInt(args[1]));
+            System.exit(harness.failureCount == 0 ? 0 : 1);
+            break;
+        case "latency":
+            measureLatency(Integer.parseInt(args[1]), Integer.parseInt(args[2]));
+            break;
+        default:
+            System.err.println("Unknown mode: " + args[0]);
+            System.exit(1);
+        }
+    }
+
+    private void crash(int rounds) throws Exception {
+        for (int round = 1; round <= rounds; round++) {
+            long writerSeed = random.nextLong();
+            switch (round % 3) {
+            case 0:
+                killWriter(writerSeed);
+                break;
+            case 1:
+                tearOperation(writerSeed, false);
+                break;
+            default:
+                tearOperation(writerSeed, true);
+                break;
+            }
+        }
+        for (Map.Entry<String, Integer> outcome : outcomes.entrySet()) {
+            System.out.printf("%-80s %6d%n", outcome.getKey(), outcome.getValue());
+        }
+        System.out.println(failureCount == 0 ? "Test result: PASSED" : "Test result: FAILED");
+    }
+
+    /**
+     * Starts the writer process, kills it after a random delay and checks what is recovered
+     * against the list before and after the operation it was killed in.
+     */
+    private void killWriter(long writerSeed) throws Exception {
+        resetFiles(getSeedTasks());
+        List<String> command = new ArrayList<>(List.of("java", "-classpath", System.getProperty("java.class.path"),
+                CrashHarness.class.getName(), "writer", Long.toString(writerSeed)));
+        if (isSavedInPlace) {
+            command.add(IN_PLACE_OPTION);
+        }
+        // the writer's output goes to a file, as killing it closes a pipe with its last lines unread
+        Process writer = new ProcessBuilder(command).redirectErrorStream(true)
+                .redirectOutput(WRITER_OUTPUT.toFile()).start();
+        long deadline = System.currentTimeMillis() + WRITER_START_TIMEOUT_MILLIS;
+        while (!Files.readString(WRITER_OUTPUT).startsWith("ready")) {
+            if (!writer.isAlive() || System.currentTimeMillis() > deadline) {
+                fail("kill", "the writer did not start");
+                writer.destroyForcibly();
+                return;
+            }
+            Thread.sleep(1);
+        }
+        Thread.sleep(random.nextInt(MAX_KILL_DELAY_MILLIS));
+        writer.destroyForcibly().waitFor();
+        int done = 0;
+        for (String line : Files.readAllLines(WRITER_OUTPUT)) {
+            if (line.startsWith("done ")) {
+                done = Integer.parseInt(line.substring(5));
+            }
+        }
+
+        // the writer may have finished the next operation before it could say so
+        ArrayList<Task> before = getTasksAfter(writerSeed, done);
+        ArrayList<Task> after = getTasksAfter(writerSeed, done + 1);
+        List<String> recovered = recover("kill");
+        if (recovered == null) {
+            return;
+        }
+        if (recovered.equals(toLines(before))) {
+            record("kill: recovered the last finished operation");
+        } else if (recovered.equals(toLines(after))) {
+            record("kill: recovered the interrupted operation");
+        } else {
+            fail("kill", "after " + done + " operations, recovered " + recovered.size() + " tasks, expected "
+                    + before.size() + " or " + after.size());
+        }
+    }
+
+    /**
+     * Runs a random number of operations, then leaves the files as if the machine had
+     * crashed at a random byte of the next one, and checks what is recovered.
+     *
+     * @param isLineDamaged Whether to also put a malformed line in the middle of the file first.
+     */
+    private void tearOperation(long writerSeed, boolean isLineDamaged) throws Exception {
+        resetFiles(getSeedTasks());
+        Random operations = new Random(writerSeed);
+        ArrayList<Task> tasks = getSeedTasks();
+        Storage storage = new Storage(SAVE_FILE.toString());
+        storage.setSavedInPlace(isSavedInPlace);
+        storage.load();
+        int operationCount = random.nextInt(MAX_OPERATIONS_BEFORE_TEAR);
+        for (int i = 1; i <= operationCount; i++) {
+            runOperation(tasks, operations, i, storage);
+        }
+        if (isLineDamaged) {
+            Files.write(SAVE_FILE, ("T | 0" + System.lineSeparator()).getBytes(Charset.defaultCharset()),
+                    StandardOpenOption.APPEND);
+            storage.readAppendedTasks();
+        }
+        List<String> before = toLines(tasks);
+        Task appended = applyOperation(tasks, operations, operationCount + 1);
+        List<String> after = toLines(tasks);
+
+        String kind;
+        if (appended != null) {
+            byte[] line = (appended.toFileFormat() + System.lineSeparator()).getBytes(Charset.defaultCharset());
+            if (random.nextBoolean()) {
+                kind = "cut-off append";
+                appendBytes(Arrays.copyOf(line, random.nextInt(line.length + 1)));
+            } else {
+                kind = "append lost to NUL bytes";
+                appendBytes(new byte[1 + random.nextInt(line.length)]);
+            }
+        } else {
+            byte[] content = toContent(tasks);
+            int cut = random.nextInt(content.length + 1);
+            if (!isSavedInPlace || random.nextBoolean()) {
+                kind = "half-written temporary file";
+                Files.write(getSiblingPath(".tmp"), Arrays.copyOf(content, cut));
+            } else {
+                kind = "half-rewritten data file";
+                byte[] header = (Files.size(SAVE_FILE) + "\n").getBytes(Charset.defaultCharset());
+                Files.write(getSiblingPath(".journal"), header);
+                Files.write(getSiblingPath(".journal"), content, StandardOpenOption.APPEND);
+                try (FileChannel channel = FileChannel.open(SAVE_FILE, StandardOpenOption.WRITE)) {
+                    channel.write(ByteBuffer.wrap(content, 0, cut), 0);
+                }
+            }
+            if (random.nextBoolean()) {
+                kind += " then appended to";
+                Task later = new Todo("appended after the crash");
+                appendBytes((later.toFileFormat() + System.lineSeparator()).getBytes(Charset.defaultCharset()));
+                before.add(later.toFileFormat().strip());
+                after.add(later.toFileFormat().strip());
+            }
+        }
+        if (isLineDamaged) {
+            kind += " after a malformed line";
+        }
+
+        List<String> recovered = recover(kind);
+        if (recovered == null) {
+            return;
+        }
+        if (recovered.equals(before)) {
+            record(kind + ": recovered the last finished operation");
+        } else if (recovered.equals(after)) {
+            record(kind + ": recovered the interrupted operation");
+        } else {
+            fail(kind, "after " + operationCount + " operations, recovered " + recovered.size()
+                    + " tasks, expected " + before.size() + " or " + after.size());
+        }
+        // a finished rewrite replaces the malformed line, so only the other crashes find it
+        boolean isDamageFound = appended != null || kind.startsWith("half-written");
+        if (isLineDamaged && isDamageFound && !isDamagedFileKept()) {
+            fail(kind, "the damaged file was not kept");
+        }
+    }
+
+    /**
+     * Runs Dude's start-up recovery and load on the files as they were left.
+     *
+     * @return The recovered tasks in the save format, or null if recovery failed.
+     */
+    private List<String> recover(String kind) {
+        try {
+            Storage storage = new Storage(SAVE_FILE.toString());
+            storage.setSavedInPlace(isSavedInPlace);
+            storage.recover();
+            return toLines(storage.load());
+        } catch (IOException e) {
+            fail(kind, "recovery failed: " + e);
+            return null;
+        }
+    }
+
+    /**
+     * Appends the seed tasks' operations to the save file one at a time and says after each
+     * one that it is done, until it is killed.
+     */
+    private static void runWriter(long seed, boolean isSavedInPlace) throws IOException, DudeException {
+        Random operations = new Random(seed);
+        ArrayList<Task> tasks = getSeedTasks();
+        Storage storage = new Storage(SAVE_FILE.toString());
+        storage.setSavedInPlace(isSavedInPlace);
+        storage.load();
+        System.out.println("ready");
+        System.out.flush();
+        for (int i = 1; ; i++) {
+            runOperation(tasks, operations, i, storage);
+            System.out.println("done " + i);
+            System.out.flush();
+        }
+    }
+
+    private static void runOperation(List<Task> tasks, Random operations, int number, Storage storage)
+            throws IOException, DudeException {
+        Task appended = applyOperation(tasks, operations, number);
+        if (appended != null) {
+            storage.append(appended);
+        } else if (!storage.save(tasks)) {
+            throw new IOException("the save file was changed by another program");
+        }
+    }
+
+    /**
+     * Makes the next random change to the list: adding a task, which is appended to the
+     * save file, or deleting, marking or unmarking one, after which the file is rewritten.
+     *
+     * @return The task added, or null if the change needs the file to be rewritten.
+     */
+    private static Task applyOperation(List<Task> tasks, Random operations, int number) {
+        int kind = operations.nextInt(4);
+        if (kind == 0 || tasks.isEmpty()) {
+            Task task = new Todo("crash task " + number);
+            tasks.add(task);
+            return task;
+        }
+        int index = operations.nextInt(tasks.size());
+        if (kind == 1) {
+            tasks.remove(index);
+        } else {
+            tasks.get(index).setDone(kind == 2);
+        }
+        return null;
+    }
+
+    private static ArrayList<Task> getTasksAfter(long seed, int operationCount) {
+        Random operations = new Random(seed);
+        ArrayList<Task> tasks = getSeedTasks();
+        for (int i = 1; i <= operationCount; i++) {
+            applyOperation(tasks, operations, i);
+        }
+        return tasks;
+    }
+
+    private static ArrayList<Task> getSeedTasks() {
+        ArrayList<Task> tasks = new ArrayList<>();
+        for (int i = 1; i <= SEED_TASKS; i++) {
+            tasks.add(new Todo("seed task " + i));
+        }
+        return tasks;
+    }
+
+    /**
+     * Measures how long saves take, replacing the file and in place through the journal, next
+     * to rewriting the file in place and flushing it with no journal, which is not crash-safe,
+     * for a list of the given size.
+     */
+    private static void measureLatency(int taskCount, int saveCount) throws IOException, DudeException {
+        Files.createDirectories(SAVE_FILE.getParent());
+        deleteSiblings();
+        try (Writer out = Files.newBufferedWriter(SAVE_FILE, Charset.defaultCharset())) {
+            new WorkloadGenerator(1).writeFixture(taskCount, out);
+        }
+        Files.copy(SAVE_FILE, IN_PLACE_FILE, StandardCopyOption.REPLACE_EXISTING);
+        Storage storage = new Storage(SAVE_FILE.toString());
+        ArrayList<Task> tasks = storage.load();
+        Storage inPlaceStorage = new Storage(IN_PLACE_FILE.toString());
+        inPlaceStorage.setSavedInPlace(true);
+        inPlaceStorage.load();
+        Path plainPath = getSiblingPath(".plain");
+        LatencyHistogram replaced = new LatencyHistogram();
+        LatencyHistogram journaled = new LatencyHistogram();
+        LatencyHistogram plain = new LatencyHistogram();
+
+        for (int i = 0; i < saveCount; i++) {
+            Task task = tasks.get(i % tasks.size());
+            task.setDone(!task.isDone());
+            long start = System.nanoTime();
+            if (!storage.save(tasks)) {
+                throw new IOException("the save file was changed by another program");
+            }
+            replaced.record(System.nanoTime() - start);
+
+            start = System.nanoTime();
+            if (!inPlaceStorage.save(tasks)) {
+                throw new IOException("the save file was changed by another program");
+            }
+            journaled.record(System.nanoTime() - start);
+
+            start = System.nanoTime();
+            byte[] bytes = toContent(tasks);
+            try (FileChannel channel = FileChannel.open(plainPath, StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE)) {
+                ByteBuffer buffer = ByteBuffer.wrap(bytes);
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer, buffer.position());
+                }
+                channel.truncate(bytes.length);
+                channel.force(true);
+            }
+            plain.record(System.nanoTime() - start);
+        }
+        Files.delete(plainPath);
+        deleteSiblings(IN_PLACE_FILE);
+        Files.delete(IN_PLACE_FILE);
+
+        System.out.printf("%d tasks (%.2f MB), %d saves%n", taskCount, Files.size(SAVE_FILE) / (1024.0 * 1024.0),
+                saveCount);
+        System.out.printf("%-22s %9s %9s %9s%n", "save", "p50(ms)", "p99(ms)", "max(ms)");
+        printLatency("in place, no journal", plain);
+        printLatency("replacing the file", replaced);
+        printLatency("in place, journaled", journaled);
+    }
+
+    private static void printLatency(String name, LatencyHistogram latencies) {
+        System.out.printf("%-22s %9.3f %9.3f %9.3f%n", name, latencies.getPercentile(0.5) / NANOS_PER_MILLI,
+                latencies.getPercentile(0.99) / NANOS_PER_MILLI, latencies.getMax() / NANOS_PER_MILLI);
+    }
+
+    private static void resetFiles(List<Task> tasks) throws IOException {
+        Files.createDirectories(SAVE_FILE.getParent());
+        deleteSiblings();
+        Files.write(SAVE_FILE, toContent(tasks));
+    }
+
+    private static void deleteSiblings() throws IOException {
+        deleteSiblings(SAVE_FILE);
+    }
+
+    /**
+     * Deletes the files that Storage keeps beside the given save file.
+     */
+    private static void deleteSiblings(Path file) throws IOException {
+        try (DirectoryStream<Path> siblings = Files.newDirectoryStream(file.getParent(), file.getFileName() + ".*")) {
+            for (Path sibling : siblings) {
+                Files.delete(sibling);
+            }
+        }
+    }
+
+    private static boolean isDamagedFileKept() throws IOException {
+        try (DirectoryStream<Path> kept = Files.newDirectoryStream(SAVE_FILE.getParent(),
+                SAVE_FILE.getFileName() + ".corrupt-*")) {
+            return kept.iterator().hasNext();
+        }
+    }
+
+    private static void appendBytes(byte[] bytes) throws IOException {
+        Files.write(SAVE_FILE, bytes, StandardOpenOption.APPEND);
+    }
+
+    private static Path getSiblingPath(String suffix) {
+        return Paths.get(SAVE_FILE + suffix);
+    }
+
+    /**
+     * Returns the contents of a save file of the given tasks, written the way Dude writes it.
+     */
+    private static byte[] toContent(List<Task> tasks) {
+        StringBuilder content = new StringBuilder();
+        for (Task task : tasks) {
+            content.append(task.toFileFormat()).append(System.lineSeparator());
+        }
+        return content.toString().getBytes(Charset.defaultCharset());
+    }
+
+    private static List<String> toLines(List<Task> tasks) {
+        List<String> lines = new ArrayList<>();
+        for (Task task : tasks) {
+            lines.add(task.toFileFormat().strip());
+        }
+        return lines;
+    }
+
+    private void record(String outcome) {
+        outcomes.merge(outcome, 1, Integer::sum);
+    }
+
+    private void fail(String kind, String message) {
+        failureCount++;
+        record(kind + ": FAILED");
+        if (failureCount <= 10) {
+            System.out.println("ERROR: " + kind + ": " + message);
+        }
+    }
+}
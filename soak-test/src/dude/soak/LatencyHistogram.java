@@ -0,0 +1,81 @@
+package dude.soak;
+
+import java.util.Arrays;
+
+/**
+ * Records latencies in buckets that grow with the latency, so that percentiles can be
+ * read off in constant memory however many latencies are recorded. Each power of two
+ * is split into 16 buckets, so a percentile is reported within about 6% of its value.
+ */
+public class LatencyHistogram {
+    private static final int SUB_BUCKET_BITS = 4;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+    private final long[] counts = new long[64 * SUB_BUCKETS];
+    private long totalCount;
+    private long maxValue;
+
+    /**
+     * Records one latency.
+     *
+     * @param nanos The latency in nanoseconds.
+     */
+    public void record(long nanos) {
+        counts[getBucket(Math.max(nanos, 0))]++;
+        totalCount++;
+        maxValue = Math.max(maxValue, nanos);
+    }
+
+    public long getCount() {
+        return totalCount;
+    }
+
+    public long getMax() {
+        return maxValue;
+    }
+
+    /**
+     * Returns the latency that the given fraction of the recorded latencies are at or below.
+     *
+     * @param fraction The fraction, between 0 and 1, such as 0.99 for the 99th percentile.
+     * @return The latency in nanoseconds, or 0 if nothing was recorded.
+     */
+    public long getPercentile(double fraction) {
+        long target = (long) Math.ceil(fraction * totalCount);
+        long seen = 0;
+        for (int bucket = 0; bucket < counts.length; bucket++) {
+            seen += counts[bucket];
+            if (seen >= Math.max(target, 1)) {
+                return Math.min(getUpperBound(bucket), maxValue);
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Clears the histogram, so that it can record the next interval.
+     */
+    public void reset() {
+        Arrays.fill(counts, 0);
+        totalCount = 0;
+        maxValue = 0;
+    }
+
+    private static int getBucket(long value) {
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        if (exponent < SUB_BUCKET_BITS) {
+            return (int) value;
+        }
+        int subBucket = (int) ((value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1));
+        return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + subBucket;
+    }
+
+    private static long getUpperBound(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        int shift = bucket / SUB_BUCKETS - 1;
+        long lowerBound = (long) (SUB_BUCKETS + bucket % SUB_BUCKETS) << shift;
+        return lowerBound + (1L << shift) - 1;
+    }
+}
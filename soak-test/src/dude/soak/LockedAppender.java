@@ -0,0 +1,63 @@
+package dude.soak;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.Charset;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Appends numbered todos to a save file as fast as it can, the way a well-behaved program
+ * sharing the file with Dude does: the lock file beside the save file is held while each
+ * whole line is written. The save file is opened again for each line, as Dude replaces it
+ * when it saves, or, when Dude saves in place, may be kept open throughout. It is run as a
+ * separate process, as file locks only keep processes, not threads, apart.
+ */
+public class LockedAppender {
+
+    /**
+     * Appends the todos "PREFIX-1" to "PREFIX-COUNT", keeping the save file open if the
+     * last argument is "open".
+     * Usage: {@code LockedAppender FILE PREFIX COUNT [open]}.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 3) {
+            System.err.println("Usage: LockedAppender FILE PREFIX COUNT [open]");
+            System.exit(1);
+        }
+        Path filePath = Paths.get(args[0]);
+        int count = Integer.parseInt(args[2]);
+        boolean isKeptOpen = args.length > 3 && args[3].equals("open");
+        FileChannel file = isKeptOpen ? openForAppending(filePath) : null;
+        try (FileChannel lockFile = FileChannel.open(Paths.get(args[0] + ".lock"), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE)) {
+            for (int i = 1; i <= count; i++) {
+                String line = "T | 0 | " + args[1] + "-" + i + System.lineSeparator();
+                ByteBuffer buffer = ByteBuffer.wrap(line.getBytes(Charset.defaultCharset()));
+                FileLock lock = lockFile.lock();
+                try {
+                    FileChannel channel = isKeptOpen ? file : openForAppending(filePath);
+                    while (buffer.hasRemaining()) {
+                        channel.write(buffer);
+                    }
+                    if (!isKeptOpen) {
+                        channel.close();
+                    }
+                } finally {
+                    lock.release();
+                }
+            }
+        } finally {
+            if (file != null) {
+                file.close();
+            }
+        }
+    }
+
+    private static FileChannel openForAppending(Path filePath) throws IOException {
+        return FileChannel.open(filePath, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+}
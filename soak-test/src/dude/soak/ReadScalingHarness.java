@@ -0,0 +1,218 @@
+package dude.soak;
+
+import dude.DudeException;
+import dude.ListQuery;
+import dude.Parser;
+import dude.Storage;
+import dude.TaskList;
+import dude.task.Task;
+import dude.task.Todo;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Runs list and find readers against a task list that a writer keeps changing and saving,
+ * checks every answer the readers get, and measures how many reads per second they manage
+ * as more readers are added.
+ * The writer works the way Dude does: each add, delete, mark or unmark is followed by
+ * appending the task to, or saving, a real save file while holding the save file lock.
+ * Each thread count is run twice: with the readers taking that lock for every read, as all
+ * of Dude's commands once did, and with the readers taking no lock, as Dude's list and find
+ * do now.
+ */
+public class ReadScalingHarness {
+    private static final Path SAVE_FILE = Paths.get("data", "dude.txt");
+    private static final String FIND_KEYWORD = "book";
+    private static final long SEED = 42;
+
+    private final TaskList taskList;
+    private final Storage storage;
+    private final ListQuery todoQuery;
+    private final Object saveFileLock = new Object();
+    private final AtomicLong errorCount = new AtomicLong();
+
+    private ReadScalingHarness(TaskList taskList, Storage storage) throws DudeException {
+        this.taskList = taskList;
+        this.storage = storage;
+        this.todoQuery = Parser.getListQuery("list todo");
+    }
+
+    /**
+     * Measures the read throughput for each number of reader threads given.
+     * Usage: {@code ReadScalingHarness TASKS SECONDS THREADS...}.
+     */
+    public static void main(String[] args) throws Exception {
+        if (args.length < 3) {
+            System.err.println("Usage: ReadScalingHarness TASKS SECONDS THREADS...");
+            System.exit(1);
+        }
+        int taskCount = Integer.parseInt(args[0]);
+        double seconds = Double.parseDouble(args[1]);
+
+        Files.createDirectories(SAVE_FILE.getParent());
+        try (Writer out = Files.newBufferedWriter(SAVE_FILE, Charset.defaultCharset())) {
+            new WorkloadGenerator(SEED).writeFixture(taskCount, out);
+        }
+        Storage storage = new Storage(SAVE_FILE.toString());
+        TaskList taskList = new TaskList();
+        for (Task task : storage.load()) {
+            taskList.addTask(task);
+        }
+        ReadScalingHarness harness = new ReadScalingHarness(taskList, storage);
+
+        System.out.printf("%d tasks, %.1f s per run, %d cores%n", taskCount, seconds,
+                Runtime.getRuntime().availableProcessors());
+        System.out.printf("%-8s %8s %12s %14s %12s %9s%n", "readers", "lock", "reads/s", "reads/s/thread",
+                "writes/s", "errors");
+        for (int i = 2; i < args.length; i++) {
+            int readerCount = Integer.parseInt(args[i]);
+            harness.run(readerCount, true, seconds);
+            harness.run(readerCount, false, seconds);
+        }
+
+        if (harness.errorCount.get() == 0) {
+            System.out.println("Test result: PASSED");
+            System.exit(0);
+        } else {
+            System.out.println("Test result: FAILED");
+            System.exit(1);
+        }
+    }
+
+    private void run(int readerCount, boolean isReadLocked, double seconds) throws InterruptedException {
+        AtomicBoolean isRunning = new AtomicBoolean(true);
+        AtomicLong readCount = new AtomicLong();
+        AtomicLong writeCount = new AtomicLong();
+        long errorsBefore = errorCount.get();
+
+        List<Thread> threads = new ArrayList<>();
+        threads.add(new Thread(() -> write(isRunning, writeCount), "writer"));
+        for (int i = 0; i < readerCount; i++) {
+            long seed = SEED + i;
+            threads.add(new Thread(() -> read(isRunning, readCount, isReadLocked, seed), "reader-" + i));
+        }
+        long start = System.nanoTime();
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        Thread.sleep((long) (seconds * 1000));
+        isRunning.set(false);
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        double elapsed = (System.nanoTime() - start) / 1e9;
+
+        double readsPerSecond = readCount.get() / elapsed;
+        System.out.printf("%-8d %8s %12.1f %14.1f %12.1f %9d%n", readerCount, isReadLocked ? "held" : "none",
+                readsPerSecond, readsPerSecond / readerCount, writeCount.get() / elapsed,
+                errorCount.get() - errorsBefore);
+    }
+
+    /**
+     * Keeps adding, deleting, marking and unmarking tasks and saving them, the way Dude's
+     * commands do. Deletes and adds are balanced, so the list keeps about the same size.
+     */
+    private void write(AtomicBoolean isRunning, AtomicLong writeCount) {
+        Random random = new Random(SEED);
+        int added = 0;
+        try {
+            while (isRunning.get()) {
+                synchronized (saveFileLock) {
+                    int size = taskList.getSize();
+                    switch (size == 0 ? 0 : random.nextInt(4)) {
+                    case 0:
+                        Task task = new Todo("stress task " + added++);
+                        taskList.addTask(task);
+                        storage.append(task);
+                        break;
+                    case 1:
+                        taskList.deleteTask(random.nextInt(size));
+                        storage.save(taskList.getAllTasks());
+                        break;
+                    default:
+                        taskList.markTask(random.nextInt(size), random.nextBoolean());
+                        storage.save(taskList.getAllTasks());
+                        break;
+                    }
+                }
+                writeCount.incrementAndGet();
+            }
+        } catch (IOException | DudeException e) {
+            fail("the writer failed: " + e);
+        }
+    }
+
+    /**
+     * Keeps listing every task, finding a keyword and listing the todos, checking each answer.
+     */
+    private void read(AtomicBoolean isRunning, AtomicLong readCount, boolean isReadLocked, long seed) {
+        Random random = new Random(seed);
+        while (isRunning.get()) {
+            if (isReadLocked) {
+                synchronized (saveFileLock) {
+                    readOnce(random.nextInt(3));
+                }
+            } else {
+                readOnce(random.nextInt(3));
+            }
+            readCount.incrementAndGet();
+        }
+    }
+
+    private void readOnce(int kind) {
+        switch (kind) {
+        case 0:
+            checkList(taskList.getAllTasks());
+            break;
+        case 1:
+            for (Task task : taskList.findTasks(FIND_KEYWORD)) {
+                if (!task.contains(FIND_KEYWORD)) {
+                    fail("find returned a task without the keyword: " + task);
+                }
+            }
+            break;
+        default:
+            for (Task task : taskList.getTasks(todoQuery)) {
+                if (!(task instanceof Todo)) {
+                    fail("list todo returned a task that is not a todo: " + task);
+                }
+            }
+            break;
+        }
+    }
+
+    /**
+     * Checks that a snapshot reads the same however it is walked, and formats every task
+     * the way the list command prints them.
+     */
+    private void checkList(List<Task> snapshot) {
+        int size = snapshot.size();
+        int walked = 0;
+        for (Task task : snapshot) {
+            if (task == null || task.toString().isEmpty()) {
+                fail("the list contained an empty entry at " + walked);
+                return;
+            }
+            walked++;
+        }
+        if (walked != size || (size > 0 && snapshot.get(size - 1) == null)) {
+            fail("the list walked " + walked + " tasks but has a size of " + size);
+        }
+    }
+
+    private void fail(String message) {
+        if (errorCount.incrementAndGet() <= 10) {
+            System.out.println("ERROR: " + message);
+        }
+    }
+}
@@ -0,0 +1,173 @@
+package dude.soak;
+
+import dude.DudeException;
+import dude.Parser;
+import dude.TaskList;
+import dude.TaskSummary;
+import dude.task.Deadline;
+import dude.task.Event;
+import dude.task.Priority;
+import dude.task.Task;
+import dude.task.Todo;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Checks the running counts behind the summary command against a full recount of the list.
+ * Tasks are added, deleted, marked, unmarked and given new priorities at random, and the
+ * clock is moved back and forth, mostly forwards, so that deadlines fall due and, when it
+ * moves back, are no longer due. Every so often the summary is compared with counts made
+ * by going through every task, and the time each takes is reported.
+ */
+public class RecountHarness {
+    private static final LocalDateTime BASE_TIME = LocalDateTime.of(2026, 1, 1, 0, 0);
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HHmm");
+    private static final String[] TYPES = {"T", "D", "E"};
+    private static final int DATE_RANGE_MINUTES = 100000;
+    private static final int MAX_CLOCK_STEP_MINUTES = 200;
+    private static final int MAX_CLOCK_STEP_BACK_MINUTES = 20;
+    private static final Priority[] PRIORITIES = Priority.values();
+    private static final double NANOS_PER_MICRO = 1e3;
+
+    private final Random random;
+    private final TaskList taskList = new TaskList();
+    private LocalDateTime now = BASE_TIME;
+    private long checkCount;
+    private long summaryNanos;
+    private long recountNanos;
+
+    private RecountHarness(long seed) {
+        this.random = new Random(seed);
+    }
+
+    /**
+     * Usage: {@code RecountHarness OPERATIONS SEED [CHECK_EVERY]}.
+     */
+    public static void main(String[] args) throws DudeException {
+        if (args.length < 2) {
+            System.err.println("Usage: RecountHarness OPERATIONS SEED [CHECK_EVERY]");
+            System.exit(1);
+        }
+        int operationCount = Integer.parseInt(args[0]);
+        int checkEvery = args.length > 2 ? Integer.parseInt(args[2]) : 10;
+
+        RecountHarness harness = new RecountHarness(Long.parseLong(args[1]));
+        String mismatch = harness.run(operationCount, checkEvery);
+        System.out.printf("%d operations, %d checks, %d tasks left%n", operationCount, harness.checkCount,
+                harness.taskList.getSize());
+        if (harness.checkCount > 0) {
+            System.out.printf("summary: %.2f us per call, full recount: %.2f us per call%n",
+                    harness.summaryNanos / NANOS_PER_MICRO / harness.checkCount,
+                    harness.recountNanos / NANOS_PER_MICRO / harness.checkCount);
+        }
+        if (mismatch == null) {
+            System.out.println("Test result: PASSED");
+            System.exit(0);
+        } else {
+            System.out.println("ERROR: " + mismatch);
+            System.out.println("Test result: FAILED");
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Runs the operations, comparing the summary with a recount after every so many of them.
+     *
+     * @return A description of the first difference found, or null if there was none.
+     */
+    private String run(int operationCount, int checkEvery) throws DudeException {
+        for (int i = 1; i <= operationCount; i++) {
+            int size = taskList.getSize();
+            int kind = random.nextInt(10);
+            if (kind < 4 || size == 0) {
+                taskList.addTask(createTask());
+            } else if (kind < 6) {
+                taskList.deleteTask(random.nextInt(size));
+            } else if (kind < 9) {
+                taskList.markTask(random.nextInt(size), random.nextBoolean());
+            } else {
+                taskList.setPriority(random.nextInt(size), PRIORITIES[random.nextInt(PRIORITIES.length)]);
+            }
+            if (random.nextInt(checkEvery) == 0) {
+                now = now.plusMinutes(random.nextInt(MAX_CLOCK_STEP_MINUTES) - MAX_CLOCK_STEP_BACK_MINUTES);
+                String mismatch = check();
+                if (mismatch != null) {
+                    return "after " + i + " operations at " + now + ", " + mismatch;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Creates a random task. Some deadlines and events are given dates that are not
+     * recognised, which are never overdue.
+     */
+    private Task createTask() {
+        String date = random.nextInt(5) == 0 ? "Monday"
+                : BASE_TIME.plusMinutes(random.nextInt(DATE_RANGE_MINUTES)).format(DATE_FORMAT);
+        Task task;
+        switch (random.nextInt(3)) {
+        case 0:
+            task = new Todo("recount todo");
+            break;
+        case 1:
+            task = new Deadline("recount deadline", date);
+            break;
+        default:
+            task = new Event("recount event", date, "later");
+            break;
+        }
+        task.setDone(random.nextBoolean());
+        return task;
+    }
+
+    /**
+     * Compares the summary with counts made by going through every task.
+     *
+     * @return A description of the difference, or null if there was none.
+     */
+    private String check() {
+        checkCount++;
+        long start = System.nanoTime();
+        TaskSummary summary = taskList.getSummary(now);
+        summaryNanos += System.nanoTime() - start;
+
+        start = System.nanoTime();
+        Map<String, Integer> totalCounts = new HashMap<>();
+        Map<String, Integer> doneCounts = new HashMap<>();
+        int overdueCount = 0;
+        for (Task task : taskList.getAllTasks()) {
+            totalCounts.merge(task.getTypeSymbol(), 1, Integer::sum);
+            if (task.isDone()) {
+                doneCounts.merge(task.getTypeSymbol(), 1, Integer::sum);
+            } else if (task instanceof Deadline) {
+                LocalDateTime due = Parser.parseDateTime(task.getDate());
+                if (due != null && due.isBefore(now)) {
+                    overdueCount++;
+                }
+            }
+        }
+        recountNanos += System.nanoTime() - start;
+
+        for (String type : TYPES) {
+            int total = totalCounts.getOrDefault(type, 0);
+            int done = doneCounts.getOrDefault(type, 0);
+            if (summary.getDoneCount(type) != done || summary.getPendingCount(type) != total - done) {
+                return type + " counts " + summary.getDoneCount(type) + " done and " + summary.getPendingCount(type)
+                        + " pending, but a recount gives " + done + " and " + (total - done);
+            }
+        }
+        if (summary.getTotalCount() != taskList.getSize()) {
+            return "the total is " + summary.getTotalCount() + ", but the list has " + taskList.getSize();
+        }
+        if (summary.getOverdueCount() != overdueCount) {
+            return summary.getOverdueCount() + " deadlines are overdue, but a recount gives " + overdueCount;
+        }
+        return null;
+    }
+}
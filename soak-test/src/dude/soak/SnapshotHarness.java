@@ -0,0 +1,178 @@
+package dude.soak;
+
+import dude.DudeException;
+import dude.ListQuery;
+import dude.Parser;
+import dude.TaskList;
+import dude.task.Priority;
+import dude.task.Task;
+import dude.task.Todo;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Checks that the snapshots of a task list never change, and that deleting from a large
+ * list does not take time in proportion to its size.
+ * Tasks are added, deleted, marked, unmarked and given new priorities at random, and the
+ * list is compared with an ArrayList that has the same changes made to it. Every so often
+ * a snapshot is kept together with a copy of what it held, and after all the changes each
+ * kept snapshot must still hold exactly that. Then the time a delete takes is measured at
+ * a few list sizes.
+ */
+public class SnapshotHarness {
+    private static final Priority[] PRIORITIES = Priority.values();
+    private static final int[] TIMED_SIZES = {10000, 100000, 1000000};
+    private static final int TIMED_DELETES = 1000;
+    private static final double NANOS_PER_MICRO = 1e3;
+
+    private final Random random;
+    private final TaskList taskList = new TaskList();
+    private final ArrayList<String> expected = new ArrayList<>();
+    private final ArrayList<List<Task>> keptSnapshots = new ArrayList<>();
+    private final ArrayList<List<String>> keptContents = new ArrayList<>();
+    private int added;
+
+    private SnapshotHarness(long seed) {
+        this.random = new Random(seed);
+    }
+
+    /**
+     * Usage: {@code SnapshotHarness OPERATIONS SEED [CHECK_EVERY]}.
+     */
+    public static void main(String[] args) throws DudeException {
+        if (args.length < 2) {
+            System.err.println("Usage: SnapshotHarness OPERATIONS SEED [CHECK_EVERY]");
+            System.exit(1);
+        }
+        int operationCount = Integer.parseInt(args[0]);
+        int checkEvery = args.length > 2 ? Integer.parseInt(args[2]) : 1000;
+
+        SnapshotHarness harness = new SnapshotHarness(Long.parseLong(args[1]));
+        String mismatch = harness.run(operationCount, checkEvery);
+        System.out.printf("%d operations, %d snapshots kept, %d tasks left%n", operationCount,
+                harness.keptSnapshots.size(), harness.taskList.getSize());
+        if (mismatch == null) {
+            timeDeletes();
+        }
+        if (mismatch == null) {
+            System.out.println("Test result: PASSED");
+            System.exit(0);
+        } else {
+            System.out.println("ERROR: " + mismatch);
+            System.out.println("Test result: FAILED");
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Runs the operations, comparing the list with the ArrayList after every so many of them.
+     *
+     * @return A description of the first difference found, or null if there was none.
+     */
+    private String run(int operationCount, int checkEvery) throws DudeException {
+        for (int i = 1; i <= operationCount; i++) {
+            int size = taskList.getSize();
+            int kind = random.nextInt(10);
+            if (kind < 4 || size == 0) {
+                Task task = new Todo("snapshot todo " + added++);
+                task.setPriority(PRIORITIES[random.nextInt(PRIORITIES.length)]);
+                taskList.addTask(task);
+                expected.add(task.toFileFormat());
+            } else if (kind < 6) {
+                int index = random.nextInt(size);
+                taskList.deleteTask(index);
+                expected.remove(index);
+            } else if (kind < 9) {
+                int index = random.nextInt(size);
+                expected.set(index, taskList.markTask(index, random.nextBoolean()).toFileFormat());
+            } else {
+                int index = random.nextInt(size);
+                Priority priority = PRIORITIES[random.nextInt(PRIORITIES.length)];
+                expected.set(index, taskList.setPriority(index, priority).toFileFormat());
+            }
+            if (random.nextInt(checkEvery) == 0) {
+                String mismatch = check(taskList.getAllTasks(), expected);
+                if (mismatch != null) {
+                    return "after " + i + " operations, " + mismatch;
+                }
+                keptSnapshots.add(taskList.getAllTasks());
+                keptContents.add(new ArrayList<>(expected));
+            }
+        }
+        String mismatch = check(taskList.getAllTasks(), expected);
+        if (mismatch != null) {
+            return "at the end, " + mismatch;
+        }
+        for (int i = 0; i < keptSnapshots.size(); i++) {
+            mismatch = check(keptSnapshots.get(i), keptContents.get(i));
+            if (mismatch != null) {
+                return "kept snapshot " + (i + 1) + " changed: " + mismatch;
+            }
+        }
+        return checkDoneFilter();
+    }
+
+    /**
+     * Compares a snapshot with what it should hold, both by index and by going through it.
+     *
+     * @return A description of the difference, or null if there was none.
+     */
+    private static String check(List<Task> snapshot, List<String> contents) {
+        if (snapshot.size() != contents.size()) {
+            return "it has " + snapshot.size() + " tasks instead of " + contents.size();
+        }
+        int index = 0;
+        for (Task task : snapshot) {
+            String line = task.toFileFormat();
+            if (!line.equals(contents.get(index)) || !snapshot.get(index).toFileFormat().equals(line)) {
+                return "task " + (index + 1) + " is \"" + line + "\" instead of \"" + contents.get(index) + "\"";
+            }
+            index++;
+        }
+        return null;
+    }
+
+    /**
+     * Checks that the indexes were moved over to the copies made by marking, by listing the
+     * done tasks from them.
+     *
+     * @return A description of the difference, or null if there was none.
+     */
+    private String checkDoneFilter() throws DudeException {
+        ListQuery query = Parser.getListQuery("list done");
+        int listed = taskList.getTasks(query).size();
+        int counted = 0;
+        for (Task task : taskList.getAllTasks()) {
+            if (task.isDone()) {
+                counted++;
+            }
+        }
+        if (listed != counted) {
+            return "list done gives " + listed + " tasks, but " + counted + " are done";
+        }
+        return null;
+    }
+
+    /**
+     * Measures the time deletes take at each of a few list sizes. As a delete only copies
+     * the path down to the task, the time should grow with the logarithm of the size.
+     */
+    private static void timeDeletes() throws DudeException {
+        Random random = new Random(0);
+        System.out.printf("%10s %16s%n", "tasks", "us per delete");
+        for (int size : TIMED_SIZES) {
+            TaskList tasks = new TaskList();
+            for (int i = 0; i < size; i++) {
+                tasks.addTask(new Todo("timed todo " + i));
+            }
+            long start = System.nanoTime();
+            for (int i = 0; i < TIMED_DELETES; i++) {
+                tasks.deleteTask(random.nextInt(tasks.getSize()));
+            }
+            double micros = (System.nanoTime() - start) / NANOS_PER_MICRO / TIMED_DELETES;
+            System.out.printf("%10d %16.2f%n", size, micros);
+        }
+    }
+}
@@ -0,0 +1,207 @@
+package dude.soak;
+
+import dude.Dude;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PipedInputStream;
+import java.io.PipedOutputStream;
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Replays a stream of commands against Dude and reports how it holds up over time.
+ * Dude is run in this JVM, reading its commands from a pipe, so it saves to
+ * {@code data/dude.txt} in the directory the harness is started in.
+ * Each command is followed by an empty one, and the command is taken to be done once
+ * Dude has answered the empty one, which it always does with the same error. Every so
+ * many commands, a line is printed with the throughput, the latency percentiles, the heap
+ * in use after a garbage collection and the size of the save file. The time spent taking
+ * these measurements is left out of the throughput and latencies.
+ */
+public class SoakHarness {
+    private static final String SYNC_REPLY = "Dude, your message cannot be empty.";
+    private static final Path SAVE_FILE = Paths.get("data", "dude.txt");
+    private static final double NANOS_PER_MILLI = 1e6;
+
+    private final PrintStream report;
+    private final PipedOutputStream input;
+    private final Semaphore replies;
+    private final LatencyHistogram intervalLatencies;
+    private final Map<String, LatencyHistogram> commandLatencies;
+
+    private SoakHarness(PrintStream report, PipedOutputStream input, Semaphore replies) {
+        this.report = report;
+        this.input = input;
+        this.replies = replies;
+        this.intervalLatencies = new LatencyHistogram();
+        this.commandLatencies = new TreeMap<>();
+    }
+
+    /**
+     * Replays the commands in the given file.
+     * Usage: {@code SoakHarness COMMANDS_FILE [REPORT_EVERY]}.
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        if (args.length < 1) {
+            System.err.println("Usage: SoakHarness COMMANDS_FILE [REPORT_EVERY]");
+            System.exit(1);
+        }
+        int reportEvery = args.length > 1 ? Integer.parseInt(args[1]) : 10000;
+
+        PrintStream report = System.out;
+        Semaphore replies = new Semaphore(0);
+        PipedOutputStream input = new PipedOutputStream();
+        System.setIn(new PipedInputStream(input, 1 << 16));
+        System.setOut(new PrintStream(new ReplyDetector(replies), false));
+
+        SoakHarness harness = new SoakHarness(report, input, replies);
+        Thread dude = new Thread(() -> Dude.main(new String[0]), "dude");
+        dude.start();
+        harness.replay(Paths.get(args[0]), reportEvery);
+        harness.send("bye");
+        dude.join();
+        System.setOut(report);
+        System.exit(0);
+    }
+
+    private void replay(Path commands, int reportEvery) throws IOException, InterruptedException {
+        long startupStart = System.nanoTime();
+        sync();
+        report.printf("Started up in %.1f ms, heap %.1f MB, save file %.2f MB%n",
+                (System.nanoTime() - startupStart) / NANOS_PER_MILLI, getHeapUsedAfterGc(), getSaveFileSize());
+        report.printf("%10s %9s %10s %9s %9s %10s %9s %9s %9s%n", "commands", "seconds", "cmds/s",
+                "p50(ms)", "p99(ms)", "p99.9(ms)", "max(ms)", "heap(MB)", "file(MB)");
+
+        long commandCount = 0;
+        double replaySeconds = 0;
+        long intervalStart = System.nanoTime();
+        try (BufferedReader reader = Files.newBufferedReader(commands, Charset.defaultCharset())) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                long start = System.nanoTime();
+                send(line);
+                sync();
+                long latency = System.nanoTime() - start;
+                intervalLatencies.record(latency);
+                commandLatencies.computeIfAbsent(getCommandWord(line), k -> new LatencyHistogram()).record(latency);
+                commandCount++;
+                if (commandCount % reportEvery == 0) {
+                    double intervalSeconds = (System.nanoTime() - intervalStart) / 1e9;
+                    replaySeconds += intervalSeconds;
+                    printInterval(commandCount, replaySeconds, intervalSeconds);
+                    intervalStart = System.nanoTime();
+                }
+            }
+        }
+        if (intervalLatencies.getCount() > 0) {
+            double intervalSeconds = (System.nanoTime() - intervalStart) / 1e9;
+            replaySeconds += intervalSeconds;
+            printInterval(commandCount, replaySeconds, intervalSeconds);
+        }
+        printCommandLatencies();
+    }
+
+    private void printInterval(long commandCount, double replaySeconds, double intervalSeconds) {
+        report.printf("%10d %9.1f %10.1f %9.3f %9.3f %10.3f %9.3f %9.1f %9.2f%n", commandCount, replaySeconds,
+                intervalLatencies.getCount() / intervalSeconds, toMillis(intervalLatencies.getPercentile(0.5)),
+                toMillis(intervalLatencies.getPercentile(0.99)), toMillis(intervalLatencies.getPercentile(0.999)),
+                toMillis(intervalLatencies.getMax()), getHeapUsedAfterGc(), getSaveFileSize());
+        intervalLatencies.reset();
+    }
+
+    private void printCommandLatencies() {
+        report.println();
+        report.printf("%-10s %10s %9s %9s %9s%n", "command", "count", "p50(ms)", "p99(ms)", "max(ms)");
+        for (Map.Entry<String, LatencyHistogram> entry : commandLatencies.entrySet()) {
+            LatencyHistogram latencies = entry.getValue();
+            report.printf("%-10s %10d %9.3f %9.3f %9.3f%n", entry.getKey(), latencies.getCount(),
+                    toMillis(latencies.getPercentile(0.5)), toMillis(latencies.getPercentile(0.99)),
+                    toMillis(latencies.getMax()));
+        }
+    }
+
+    private void send(String command) throws IOException {
+        input.write((command + System.lineSeparator()).getBytes(Charset.defaultCharset()));
+        input.flush();
+    }
+
+    /**
+     * Sends an empty command and waits for Dude to answer it, which it only does once it
+     * has finished with every command before it.
+     */
+    private void sync() throws IOException, InterruptedException {
+        send("");
+        replies.acquire();
+    }
+
+    private static String getCommandWord(String command) {
+        String trimmed = command.trim();
+        int space = trimmed.indexOf(' ');
+        return (space < 0 ? trimmed : trimmed.substring(0, space)).toLowerCase();
+    }
+
+    private static double getHeapUsedAfterGc() {
+        System.gc();
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed() / (1024.0 * 1024.0);
+    }
+
+    private static double getSaveFileSize() {
+        try {
+            return Files.size(SAVE_FILE) / (1024.0 * 1024.0);
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    private static double toMillis(long nanos) {
+        return nanos / NANOS_PER_MILLI;
+    }
+
+    /**
+     * Stands in for Dude's standard output. The output is thrown away, except that each
+     * answer to an empty command is counted, so that the harness knows when to go on.
+     */
+    private static class ReplyDetector extends OutputStream {
+        private final byte[] reply = SYNC_REPLY.getBytes(Charset.defaultCharset());
+        private final Semaphore replies;
+        private int lineLength;
+        private boolean isMatching = true;
+
+        ReplyDetector(Semaphore replies) {
+            this.replies = replies;
+        }
+
+        @Override
+        public void write(int b) {
+            if (b == '\n') {
+                if (isMatching && lineLength == reply.length) {
+                    replies.release();
+                }
+                lineLength = 0;
+                isMatching = true;
+                return;
+            }
+            if (b == '\r') {
+                return;
+            }
+            isMatching = isMatching && lineLength < reply.length && reply[lineLength] == (byte) b;
+            lineLength++;
+        }
+
+        @Override
+        public void write(byte[] bytes, int offset, int length) {
+            for (int i = offset; i < offset + length; i++) {
+                write(bytes[i]);
+            }
+        }
+    }
+}
@@ -0,0 +1,253 @@
+package dude.soak;
+
+import dude.ReminderScheduler;
+import dude.TimingWheel;
+import dude.task.Deadline;
+import dude.task.Task;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Checks the timing wheel behind reminders against a simple model, and that reminders keep
+ * going off after one of them fails.
+ * Timers are scheduled with delays from none, or already past, to far beyond the top level
+ * of the wheel, cancelled at random, some more than once or after they expired, and the
+ * wheel is advanced by steps from a single tick to many turns of its levels. After each
+ * step, the timers that expired must be exactly those the model says are due, in the order
+ * of their expiry ticks, and the count of timers left must match.
+ * Then a ReminderScheduler is run for real with a reminder callback that throws, and the
+ * reminders after it must still go off.
+ */
+public class TimingWheelHarness {
+    private static final long START_TICK = 1_000_000_000L;
+    private static final long[] DELAY_RANGES = {64, 4096, 262144, 1 << 24};
+    private static final long FAR_DELAY = 1L << 34;
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HHmm");
+    private static final long REMINDER_WAIT_MILLIS = 4000;
+    private static final long MIN_SECONDS_TO_DUE = 20;
+
+    private final Random random;
+    private final TimingWheel<Integer> wheel = new TimingWheel<>(START_TICK);
+    private final Map<Integer, TimingWheel.Timer<Integer>> timers = new HashMap<>();
+    private final Map<Integer, Long> dueTicks = new HashMap<>();
+    private final TreeMap<Long, Set<Integer>> pending = new TreeMap<>();
+    private final ArrayList<TimingWheel.Timer<Integer>> finishedTimers = new ArrayList<>();
+    private int nextId;
+    private long expiredCount;
+    private long cancelledCount;
+
+    private TimingWheelHarness(long seed) {
+        this.random = new Random(seed);
+    }
+
+    /**
+     * Usage: {@code TimingWheelHarness OPERATIONS SEED}.
+     */
+    public static void main(String[] args) throws InterruptedException {
+        if (args.length < 2) {
+            System.err.println("Usage: TimingWheelHarness OPERATIONS SEED");
+            System.exit(1);
+        }
+        int operationCount = Integer.parseInt(args[0]);
+
+        TimingWheelHarness harness = new TimingWheelHarness(Long.parseLong(args[1]));
+        long start = System.nanoTime();
+        String mismatch = harness.run(operationCount);
+        System.out.printf("%d operations in %.1f s: %d timers expired, %d cancelled, %d left, at tick +%d%n",
+                operationCount, (System.nanoTime() - start) / 1e9, harness.expiredCount, harness.cancelledCount,
+                harness.wheel.getSize(), harness.wheel.getCurrentTick() - START_TICK);
+        if (mismatch == null) {
+            mismatch = checkFailingReminder();
+        }
+        if (mismatch == null) {
+            System.out.println("Test result: PASSED");
+            System.exit(0);
+        } else {
+            System.out.println("ERROR: " + mismatch);
+            System.out.println("Test result: FAILED");
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Runs the operations, checking the wheel against the model after every advance.
+     *
+     * @return A description of the first difference found, or null if there was none.
+     */
+    private String run(int operationCount) {
+        for (int i = 1; i <= operationCount; i++) {
+            int kind = random.nextInt(10);
+            if (kind < 5) {
+                schedule();
+            } else if (kind < 7) {
+                cancel();
+            } else {
+                String mismatch = advance();
+                if (mismatch != null) {
+                    return "after " + i + " operations, " + mismatch;
+                }
+            }
+            if (wheel.getSize() != dueTicks.size()) {
+                return "after " + i + " operations, the wheel has " + wheel.getSize() + " timers instead of "
+                        + dueTicks.size();
+            }
+        }
+        return null;
+    }
+
+    private void schedule() {
+        long now = wheel.getCurrentTick();
+        int range = random.nextInt(DELAY_RANGES.length + 2);
+        long delay;
+        if (range == DELAY_RANGES.length) {
+            // already past, so it expires on the next tick
+            delay = -random.nextInt(100);
+        } else if (range == DELAY_RANGES.length + 1) {
+            delay = FAR_DELAY + random.nextInt(1000);
+        } else {
+            delay = 1 + (long) (random.nextDouble() * DELAY_RANGES[range]);
+        }
+        int id = nextId++;
+        timers.put(id, wheel.schedule(id, now + delay));
+        long dueTick = Math.max(now + delay, now + 1);
+        dueTicks.put(id, dueTick);
+        pending.computeIfAbsent(dueTick, k -> new HashSet<>()).add(id);
+    }
+
+    /**
+     * Cancels a pending timer, or sometimes one that already expired or was cancelled,
+     * which must have no effect.
+     */
+    private void cancel() {
+        if (!finishedTimers.isEmpty() && random.nextInt(5) == 0) {
+            wheel.cancel(finishedTimers.get(random.nextInt(finishedTimers.size())));
+            return;
+        }
+        if (timers.isEmpty()) {
+            return;
+        }
+        // ids are given out in order, so probing a few recent ones finds a pending timer
+        for (int attempt = 0; attempt < 20; attempt++) {
+            int id = nextId - 1 - random.nextInt(Math.min(nextId, 1000));
+            TimingWheel.Timer<Integer> timer = timers.remove(id);
+            if (timer != null) {
+                wheel.cancel(timer);
+                long dueTick = dueTicks.remove(id);
+                removePending(dueTick, id);
+                finishedTimers.add(timer);
+                cancelledCount++;
+                return;
+            }
+        }
+    }
+
+    /**
+     * Advances the wheel by a random step and compares what expired with the model.
+     *
+     * @return A description of the difference, or null if there was none.
+     */
+    private String advance() {
+        long now = wheel.getCurrentTick();
+        int size = random.nextInt(20);
+        long step = size < 14 ? 1 + random.nextInt(10) : size < 19 ? 1 + random.nextInt(5000)
+                : 1 + random.nextInt(1 << 18);
+        long target = now + step;
+        List<Integer> expired = wheel.advanceTo(target);
+        if (wheel.getCurrentTick() != target) {
+            return "the wheel is at tick " + wheel.getCurrentTick() + " instead of " + target;
+        }
+
+        Set<Integer> expected = new HashSet<>();
+        for (Set<Integer> ids : pending.headMap(target, true).values()) {
+            expected.addAll(ids);
+        }
+        if (expired.size() != expected.size() || !expected.containsAll(expired)) {
+            Set<Integer> early = new HashSet<>(expired);
+            early.removeAll(expected);
+            Set<Integer> missed = new HashSet<>(expected);
+            missed.removeAll(expired);
+            return "advancing from " + now + " to " + target + ", " + early.size() + " timers expired early and "
+                    + missed.size() + " were missed";
+        }
+        long lastDueTick = Long.MIN_VALUE;
+        for (int id : expired) {
+            long dueTick = dueTicks.remove(id);
+            if (dueTick < lastDueTick) {
+                return "a timer due on tick " + dueTick + " expired after one due on tick " + lastDueTick;
+            }
+            lastDueTick = dueTick;
+            finishedTimers.add(timers.remove(id));
+        }
+        pending.headMap(target, true).clear();
+        expiredCount += expired.size();
+        return null;
+    }
+
+    private void removePending(long dueTick, int id) {
+        Set<Integer> ids = pending.get(dueTick);
+        ids.remove(id);
+        if (ids.isEmpty()) {
+            pending.remove(dueTick);
+        }
+    }
+
+    /**
+     * Runs a ReminderScheduler whose reminder callback throws for the first task. The other
+     * task due then must still be reminded of, and so must a task added after the failure,
+     * which needs the ticks after the failing one to still run.
+     *
+     * @return A description of what went wrong, or null if nothing did.
+     */
+    private static String checkFailingReminder() throws InterruptedException {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime due = now.truncatedTo(ChronoUnit.MINUTES).plusMinutes(1);
+        if (Duration.between(now, due).getSeconds() < MIN_SECONDS_TO_DUE) {
+            due = due.plusMinutes(1);
+        }
+        // reminders go off two seconds from now
+        Duration leadTime = Duration.between(now, due).minusSeconds(2);
+        String dueText = due.format(DATE_FORMAT);
+        Task failing = new Deadline("failing reminder", dueText);
+        Task other = new Deadline("other reminder", dueText);
+        Task later = new Deadline("later reminder", dueText);
+
+        List<Task> reminded = new CopyOnWriteArrayList<>();
+        List<String> errors = new CopyOnWriteArrayList<>();
+        ReminderScheduler scheduler = new ReminderScheduler(leadTime, task -> {
+            if (task == failing) {
+                throw new IllegalStateException("a reminder that fails");
+            }
+            reminded.add(task);
+        }, errors::add);
+        scheduler.taskAdded(failing);
+        scheduler.taskAdded(other);
+        scheduler.start();
+        Thread.sleep(REMINDER_WAIT_MILLIS);
+        scheduler.taskAdded(later);
+        Thread.sleep(REMINDER_WAIT_MILLIS);
+
+        System.out.printf("failing reminder: %d errors reported, reminded of %s%n", errors.size(), reminded);
+        if (errors.size() != 1) {
+            return errors.size() + " errors were reported instead of 1";
+        }
+        if (!reminded.contains(other)) {
+            return "the reminder due with the failing one did not go off";
+        }
+        if (!reminded.contains(later)) {
+            return "the reminder added after the failing one did not go off";
+        }
+        return null;
+    }
+}
@@ -0,0 +1,323 @@
+package dude.soak;
+
+import dude.task.Deadline;
+import dude.task.Event;
+import dude.task.Priority;
+import dude.task.Task;
+import dude.task.Todo;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Generates synthetic workloads for Dude: streams of commands to replay against it,
+ * and save files to start it with. The same seed always gives the same output.
+ * Words and tags are drawn from fixed vocabularies with a Zipf distribution, so a few
+ * are very common and most are rare, as in real task lists, and dates are spread over
+ * the formats Dude accepts, including ones it does not recognise as dates.
+ */
+public class WorkloadGenerator {
+    private static final String DEFAULT_MIX = "todo=25,deadline=15,event=10,mark=20,delete=10,find=10,list=5,next=5";
+    private static final LocalDateTime BASE_DATE = LocalDateTime.of(2026, 1, 1, 0, 0);
+    private static final int DATE_RANGE_MINUTES = 2 * 365 * 24 * 60;
+    private static final DateTimeFormatter[] DATE_FORMATS = {
+        DateTimeFormatter.ofPattern("yyyy-MM-dd HHmm"),
+        DateTimeFormatter.ofPattern("yyyy-MM-dd"),
+        DateTimeFormatter.ofPattern("d/M/yyyy HHmm"),
+        DateTimeFormatter.ofPattern("d/M/yyyy"),
+    };
+    private static final String[] FREE_DATES = {
+        "Monday", "Tuesday 2pm", "Fri 5pm", "tomorrow", "next week", "end of month", "tonight", "Sunday noon",
+    };
+    private static final String[] VERBS = {
+        "read", "write", "return", "submit", "buy", "call", "fix", "review", "plan", "clean", "book", "pay",
+        "finish", "email", "prepare", "update", "check", "send", "organise", "practise", "study", "visit",
+        "cancel", "renew", "print", "pack", "cook", "draft", "test", "deploy",
+    };
+    private static final String[] NOUNS = {
+        "book", "report", "homework", "groceries", "mum", "bug", "code", "meeting", "room", "flight", "rent",
+        "assignment", "slides", "dentist", "laundry", "essay", "proposal", "tutorial", "lecture", "project",
+        "invoice", "passport", "library", "gym", "car", "bills", "notes", "exam", "interview", "resume",
+        "website", "budget", "garden", "kitchen", "presentation", "quiz", "lab", "thesis", "parcel", "tickets",
+        "insurance", "plants", "fridge", "emails", "backup", "server", "database", "release", "demo", "party",
+    };
+    private static final String[] TAGS = {
+        "work", "school", "home", "urgent", "errand", "health", "money", "family", "cs2103", "later",
+    };
+    private static final Priority[] PRIORITIES = {Priority.HIGH, Priority.MEDIUM, Priority.LOW};
+    private static final String[] LIST_OPTIONS = {
+        "", "undone", "done", "deadline", "event undone", "todo done", "/sort description", "deadline /sort date",
+    };
+
+    private final Random random;
+    private final ZipfSampler verbs;
+    private final ZipfSampler nouns;
+    private final ZipfSampler tags;
+
+    /**
+     * Initializes a new WorkloadGenerator.
+     *
+     * @param seed The seed that the output is generated from.
+     */
+    public WorkloadGenerator(long seed) {
+        this.random = new Random(seed);
+        this.verbs = new ZipfSampler(VERBS.length, 1.0);
+        this.nouns = new ZipfSampler(NOUNS.length, 1.1);
+        this.tags = new ZipfSampler(TAGS.length, 1.2);
+    }
+
+    /**
+     * Writes a save file of randomly generated tasks, in the format Dude saves them in.
+     *
+     * @param taskCount The number of tasks to write.
+     * @param out       Where to write the save file to.
+     * @throws IOException If the save file cannot be written.
+     */
+    public void writeFixture(int taskCount, Writer out) throws IOException {
+        for (int i = 0; i < taskCount; i++) {
+            Task task = nextTask();
+            task.setDone(random.nextInt(10) < 3);
+            out.write(task.toFileFormat());
+            out.write(System.lineSeparator());
+        }
+    }
+
+    /**
+     * Writes a stream of randomly generated commands, one per line.
+     * Task numbers given to mark, unmark and delete are kept within the list, assuming
+     * it starts with the given number of tasks and every command succeeds.
+     *
+     * @param commandCount     The number of commands to write.
+     * @param initialTaskCount The number of tasks in the list before the first command.
+     * @param mix              The relative weight of each kind of command.
+     * @param out              Where to write the commands to.
+     * @throws IOException If the commands cannot be written.
+     */
+    public void writeCommands(int commandCount, int initialTaskCount, Map<String, Integer> mix, Writer out)
+            throws IOException {
+        int totalWeight = mix.values().stream().mapToInt(Integer::intValue).sum();
+        int taskCount = initialTaskCount;
+        for (int i = 0; i < commandCount; i++) {
+            String kind = pickKind(mix, totalWeight);
+            if (taskCount == 0 && (kind.equals("mark") || kind.equals("delete"))) {
+                kind = "todo";
+            }
+            switch (kind) {
+            case "todo":
+            case "deadline":
+            case "event":
+                out.write(kind + " " + nextDetails(kind));
+                taskCount++;
+                break;
+            case "mark":
+                out.write((random.nextBoolean() ? "mark " : "unmark ") + (random.nextInt(taskCount) + 1));
+                break;
+            case "delete":
+                out.write("delete " + (random.nextInt(taskCount) + 1));
+                taskCount--;
+                break;
+            case "find":
+                out.write("find " + (random.nextBoolean() ? VERBS[verbs.next()] : NOUNS[nouns.next()]));
+                break;
+            case "list":
+                out.write(nextListCommand());
+                break;
+            case "next":
+                out.write(random.nextBoolean() ? "next" : "next " + (1 + random.nextInt(20)));
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown command in mix: " + kind);
+            }
+            out.write(System.lineSeparator());
+        }
+    }
+
+    /**
+     * Parses a command mix such as {@code todo=25,deadline=15,mark=20}.
+     *
+     * @param text The comma-separated pairs of command and weight.
+     * @return The weight of each command, in the order given.
+     */
+    public static Map<String, Integer> parseMix(String text) {
+        Map<String, Integer> mix = new LinkedHashMap<>();
+        for (String pair : text.split(",")) {
+            String[] parts = pair.trim().split("=");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Expected command=weight but got: " + pair);
+            }
+            int weight = Integer.parseInt(parts[1].trim());
+            if (weight < 0) {
+                throw new IllegalArgumentException("Weights cannot be negative: " + pair);
+            }
+            mix.put(parts[0].trim().toLowerCase(), weight);
+        }
+        if (mix.values().stream().mapToInt(Integer::intValue).sum() == 0) {
+            throw new IllegalArgumentException("At least one command needs a positive weight.");
+        }
+        return mix;
+    }
+
+    private String pickKind(Map<String, Integer> mix, int totalWeight) {
+        int target = random.nextInt(totalWeight);
+        for (Map.Entry<String, Integer> entry : mix.entrySet()) {
+            target -= entry.getValue();
+            if (target < 0) {
+                return entry.getKey();
+            }
+        }
+        throw new AssertionError("weights do not add up");
+    }
+
+    private Task nextTask() {
+        String description = nextDescription();
+        Task task;
+        switch (random.nextInt(4)) {
+        case 0:
+            task = new Deadline(description, nextDate());
+            break;
+        case 1:
+            task = new Event(description, nextDate(), nextDate());
+            break;
+        default:
+            task = new Todo(description);
+            break;
+        }
+        for (String tag : nextTags()) {
+            task.addTag(tag);
+        }
+        task.setPriority(nextPriority());
+        return task;
+    }
+
+    private String nextDetails(String kind) {
+        StringBuilder details = new StringBuilder(nextDescription());
+        if (kind.equals("deadline")) {
+            details.append(" /by ").append(nextDate());
+        } else if (kind.equals("event")) {
+            details.append(" /from ").append(nextDate()).append(" /to ").append(nextDate());
+        }
+        for (String tag : nextTags()) {
+            details.append(" #").append(tag);
+        }
+        Priority priority = nextPriority();
+        if (priority != Priority.NONE) {
+            details.append(" !").append(priority.getName());
+        }
+        return details.toString();
+    }
+
+    /**
+     * Returns a verb followed by one or more nouns, with longer descriptions rarer.
+     */
+    private String nextDescription() {
+        StringBuilder description = new StringBuilder(VERBS[verbs.next()]);
+        do {
+            description.append(' ').append(NOUNS[nouns.next()]);
+        } while (random.nextInt(3) == 0);
+        return description.toString();
+    }
+
+    private String nextDate() {
+        if (random.nextInt(5) == 0) {
+            return FREE_DATES[random.nextInt(FREE_DATES.length)];
+        }
+        LocalDateTime date = BASE_DATE.plusMinutes(random.nextInt(DATE_RANGE_MINUTES / 15) * 15L);
+        return date.format(DATE_FORMATS[random.nextInt(DATE_FORMATS.length)]);
+    }
+
+    private String[] nextTags() {
+        int count = random.nextInt(10) < 7 ? 0 : 1 + random.nextInt(2);
+        String[] picked = new String[count];
+        for (int i = 0; i < count; i++) {
+            picked[i] = TAGS[tags.next()];
+        }
+        return picked;
+    }
+
+    /**
+     * Returns no priority for most tasks, and one of the three priorities for the rest.
+     */
+    private Priority nextPriority() {
+        return random.nextInt(10) < 6 ? Priority.NONE : PRIORITIES[random.nextInt(PRIORITIES.length)];
+    }
+
+    private String nextListCommand() {
+        switch (random.nextInt(4)) {
+        case 0:
+            return ("list " + LIST_OPTIONS[random.nextInt(LIST_OPTIONS.length)]).trim();
+        case 1:
+            return "list #" + TAGS[tags.next()] + (random.nextBoolean() ? " & !#done" : "");
+        case 2:
+            return "list /on " + BASE_DATE.plusDays(random.nextInt(2 * 365)).format(DATE_FORMATS[1]);
+        default:
+            return "list deadline undone /sort date";
+        }
+    }
+
+    /**
+     * Draws the indexes 0 to n - 1, with index i drawn in proportion to 1 / (i + 1)^exponent.
+     */
+    private class ZipfSampler {
+        private final double[] cumulative;
+
+        ZipfSampler(int n, double exponent) {
+            cumulative = new double[n];
+            double sum = 0;
+            for (int i = 0; i < n; i++) {
+                sum += 1 / Math.pow(i + 1, exponent);
+                cumulative[i] = sum;
+            }
+            for (int i = 0; i < n; i++) {
+                cumulative[i] /= sum;
+            }
+        }
+
+        int next() {
+            double target = random.nextDouble();
+            int low = 0;
+            int high = cumulative.length - 1;
+            while (low < high) {
+                int middle = (low + high) / 2;
+                if (cumulative[middle] < target) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            return low;
+        }
+    }
+
+    /**
+     * Writes a fixture or a command stream to standard output.
+     * Usage:
+     * {@code WorkloadGenerator fixture TASKS SEED} or
+     * {@code WorkloadGenerator commands COMMANDS SEED [INITIAL_TASKS] [MIX]}.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 3) {
+            System.err.println("Usage: WorkloadGenerator fixture TASKS SEED");
+            System.err.println("       WorkloadGenerator commands COMMANDS SEED [INITIAL_TASKS] [MIX]");
+            System.err.println("MIX defaults to " + DEFAULT_MIX);
+            System.exit(1);
+        }
+        int count = Integer.parseInt(args[1]);
+        WorkloadGenerator generator = new WorkloadGenerator(Long.parseLong(args[2]));
+        try (Writer out = new BufferedWriter(new OutputStreamWriter(System.out), 1 << 16)) {
+            if (args[0].equals("fixture")) {
+                generator.writeFixture(count, out);
+            } else {
+                int initialTaskCount = args.length > 3 ? Integer.parseInt(args[3]) : 0;
+                Map<String, Integer> mix = parseMix(args.length > 4 ? args[4] : DEFAULT_MIX);
+                generator.writeCommands(count, initialTaskCount, mix, out);
+            }
+        }
+    }
+}
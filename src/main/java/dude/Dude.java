@@ -2,6 +2,7 @@ package dude;
 
 import dude.task.Deadline;
 import dude.task.Event;
+import dude.task.Priority;
 import dude.task.Task;
 import dude.task.Todo;
 
@@ -9,7 +10,10 @@ import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.nio.file.Paths;
 import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Arrays;
 
 /**
  * Main class for the Dude chatbot.
@@ -21,11 +25,24 @@ public class Dude {
     private static final Ui ui = new Ui();
     private static final Storage storage = new Storage(String.valueOf(FILE_PATH.toFile()));
     private static final TaskList taskList = new TaskList();
+    private static final Duration REMINDER_LEAD_TIME = Duration.ofMinutes(30);
+    private static final ReminderScheduler reminders =
+            new ReminderScheduler(REMINDER_LEAD_TIME, ui::showReminder, ui::showError);
+    private static final int MAX_SAVE_ATTEMPTS = 10;
+    // saves rewrite the save file in place, for other programs that keep it open to append to it
+    private static final String IN_PLACE_OPTION = "--in-place";
+    // held while the save file is read or written, so that a save includes every task merged from it
+    private static final Object saveFileLock = new Object();
 
     public static void main(String[] args) {
+        storage.setSavedInPlace(Arrays.asList(args).contains(IN_PLACE_OPTION));
+        recoverTextFile();
         createTextFile();
+        taskList.addListener(reminders);
         loadTasksFromFile();
         printGreeting();
+        watchTextFile();
+        reminders.start();
         respondToMessage();
     }
 
@@ -42,6 +59,64 @@ public class Dude {
             }
         } catch (FileNotFoundException e) {
             ui.showError("No previous file");
+        } catch (IOException e) {
+            ui.showError(e.getMessage());
+        }
+    }
+
+    /**
+     * Starts watching the save file so that tasks appended to it by other programs
+     * while Dude is running are added to the task list.
+     */
+    private static void watchTextFile() {
+        try {
+            new StorageWatcher(storage.getFilePath(), Dude::mergeExternalChanges).start();
+        } catch (IOException e) {
+            ui.showError("I can't watch the save file for changes: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Adds the tasks that other programs have appended to the save file since it was
+     * last read or written. If the file was rewritten instead, the user is told where
+     * a copy of it was kept, and the task list in memory is left as it is.
+     */
+    private static void mergeExternalChanges() {
+        synchronized (saveFileLock) {
+            try {
+                addMergedTasks(storage.readAppendedTasks());
+            } catch (IOException | DudeException e) {
+                ui.showError(e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Adds tasks picked up from the save file to the task list and tells the user about them.
+     *
+     * @param appendedTasks The tasks that other programs appended to the save file.
+     */
+    private static void addMergedTasks(ArrayList<Task> appendedTasks) {
+        for (Task t : appendedTasks) {
+            taskList.addTask(t);
+        }
+        if (!appendedTasks.isEmpty()) {
+            ui.showTasksMerged(appendedTasks.size(), taskList.getSize());
+        }
+    }
+
+    /**
+     * Repairs the save file if the last run stopped in the middle of saving it
+     * or left it damaged, and tells the user what was done.
+     */
+    private static void recoverTextFile() {
+        try {
+            String repair = storage.recover();
+            if (repair != null) {
+                ui.showRecovery(repair);
+            }
+        } catch (IOException e) {
+            ui.showError("I could not check the save file: " + e.getMessage());
         }
     }
 
@@ -80,6 +155,9 @@ public class Dude {
 
     /**
      * Processes the command and handles errors, such as exceeding the 100-task limit.
+     * No lock is held for the whole command: the task list makes each change on its own,
+     * and commands that only read, such as list and find, read a snapshot of it, so they
+     * neither wait for nor hold up a save.
      *
      * @param line The user input to be executed.
      */
@@ -99,8 +177,8 @@ public class Dude {
      */
     private static void processMessage(String line) throws DudeException {
         if (isTerminalCommand(line)) return;
-        addTaskByType(line);
-        ui.showTaskCreated(taskList.getTask(taskList.getSize() - 1), taskList.getSize());
+        Task task = addTaskByType(line);
+        ui.showTaskCreated(task, taskList.getSize());
     }
 
     /**
@@ -120,7 +198,7 @@ public class Dude {
         String command = Parser.getTaskType(line).toLowerCase();
         switch (command) {
         case "list":
-            ui.showTaskList(taskList.getAllTasks());
+            handleListing(line);
             return true;
         case "unmark":
             handleMarking(line, false);
@@ -134,6 +212,23 @@ public class Dude {
             handleDeletion(line);
             saveAllTasks();
             return true;
+        case "export":
+            handleExport(line);
+            return true;
+        case "import":
+            handleImport(line);
+            saveAllTasks();
+            return true;
+        case "next":
+            ui.showNextTasks(taskList.getMostUrgentTasks(Parser.getNextCount(line), LocalDateTime.now()));
+            return true;
+        case "priority":
+            handlePriorityChange(line);
+            saveAllTasks();
+            return true;
+        case "summary":
+            ui.showSummary(taskList.getSummary(LocalDateTime.now()));
+            return true;
         case "find":
             String findMessage = Parser.getFindDescription(line);
             ArrayList<Task> matchingTasks = taskList.findTasks(findMessage);
@@ -156,11 +251,60 @@ public class Dude {
             break;
         default:
             throw new DudeException("only the following commands are valid: "
-                    + "list,mark,unmark,delete,find,deadline,event or todo.");
+                    + "list,next,summary,mark,unmark,priority,delete,find,export,import,deadline,event or todo.");
         }
         return false;
     }
 
+    /**
+     * Displays the task list, filtered and sorted according to any options given
+     * after the list command.
+     *
+     * @param line The raw user input starting with "list".
+     * @throws DudeException If any of the list options is invalid.
+     */
+    private static void handleListing(String line) throws DudeException {
+        ListQuery query = Parser.getListQuery(line);
+        if (query.isUnfiltered()) {
+            ui.showTaskList(taskList.getAllTasks());
+        } else {
+            ui.showFilteredTaskList(taskList.getTasks(query));
+        }
+    }
+
+    /**
+     * Writes every task to the file given by the user, in the format given by its extension.
+     *
+     * @param line The raw user input containing the file to export to.
+     * @throws DudeException If no file is given or its format is not supported.
+     */
+    private static void handleExport(String line) throws DudeException {
+        Path path = Parser.getFilePath(line);
+        try {
+            new TaskExporter().export(path, taskList.getAllTasks());
+            ui.showTasksExported(taskList.getSize(), path.toAbsolutePath().toString());
+        } catch (IOException e) {
+            throw new DudeException("I could not write to " + path + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Adds the tasks in the file given by the user to the task list. Records that cannot
+     * be read are reported without stopping the rest of the file from being imported.
+     *
+     * @param line The raw user input containing the file to import from.
+     * @throws DudeException If no file is given, its format is not supported or it cannot be read.
+     */
+    private static void handleImport(String line) throws DudeException {
+        Path path = Parser.getFilePath(line);
+        try {
+            TaskImporter.ImportResult result = new TaskImporter().importTasks(path, taskList::addTask);
+            ui.showImportResult(result, taskList.getSize());
+        } catch (IOException e) {
+            throw new DudeException("I could not read " + path + ": " + e.getMessage());
+        }
+    }
+
     /**
      * Removes a task from the list based on the user-provided index.
      * Validates the index to ensure it falls within the current list range,
@@ -184,34 +328,56 @@ public class Dude {
      */
     private static void handleMarking(String line, boolean isDone) throws DudeException {
         int index = Parser.getTaskNumber(line) - 1;
-        Task task = taskList.getTask(index);
-        task.setDone(isDone);
+        Task task = taskList.markTask(index, isDone);
         ui.showMarkingFeedback(task, isDone);
     }
 
 
+    /**
+     * Changes the priority of a task and provides feedback to the user.
+     *
+     * @param line The raw user input containing the task index and the new priority.
+     * @throws DudeException If the task number or the priority is invalid.
+     */
+    private static void handlePriorityChange(String line) throws DudeException {
+        int index = Parser.getPriorityTaskNumber(line) - 1;
+        Priority priority = Parser.getNewPriority(line);
+        Task task = taskList.setPriority(index, priority);
+        ui.showPriorityChanged(task);
+    }
+
     /**
      * Validates and adds the corresponding task type to the task list.
      *
-     * @param line The raw user input containing the task type and details.
-     * @throws DudeException If any required part of the task is missing.
+     * @param taggedLine The raw user input containing the task type, details, and any #tags
+     *                   and !priority at the end.
+     * @return The task that was added.
+     * @throws DudeException If any required part of the task is missing, or a tag is reserved.
      */
-    private static void addTaskByType(String line) throws DudeException {
+    private static Task addTaskByType(String taggedLine) throws DudeException {
+        String line = Parser.removeLabels(taggedLine);
+        ArrayList<String> tags = Parser.getTags(taggedLine);
+        for (String tag : tags) {
+            if (Parser.isReservedTag(tag)) {
+                throw new DudeException("#" + tag + " stands for the tasks marked as done, so it cannot be a tag");
+            }
+        }
         String command = Parser.getTaskType(line).toLowerCase();
         String description = Parser.getTaskDescription(line);
         if (description.isEmpty()) {
             throw new DudeException("your " + command + " task cannot be empty");
         }
+        Task task = null;
         switch (command) {
         case "todo":
-            taskList.addTask(new Todo(description));
+            task = new Todo(description);
             break;
         case "deadline":
             String by = Parser.getDeadlineDate(line);
             if (by.isEmpty()) {
                 throw new DudeException("your deadline /by cannot be empty");
             }
-            taskList.addTask(new Deadline(description, by));
+            task = new Deadline(description, by);
             break;
         case "event":
             String from = Parser.getEventFromTime(line);
@@ -222,22 +388,57 @@ public class Dude {
             if (to.contains("/from")) {
                 throw new DudeException("your /from must be before /to");
             }
-            taskList.addTask(new Event(description, from, to));
+            task = new Event(description, from, to);
             break;
         default:
             break;
         }
-        saveAllTasks();
+        for (String tag : tags) {
+            task.addTag(tag);
+        }
+        task.setPriority(Parser.getPriority(taggedLine));
+        taskList.addTask(task);
+        appendTask(task);
+        return task;
     }
 
     /**
      * Overwrites the save file with the current list of tasks from memory.
+     * Any tasks appended to the file by other programs are merged in first,
+     * so that saving does not overwrite them. If other programs keep changing the file
+     * faster than it can be merged, the save is given up after a few attempts; the
+     * changes are saved with the next command instead.
      */
     private static void saveAllTasks() {
-        try {
-            storage.save(taskList.getAllTasks());
-        } catch (IOException e) {
-            ui.showError(e.getMessage());
+        synchronized (saveFileLock) {
+            try {
+                for (int i = 0; i < MAX_SAVE_ATTEMPTS; i++) {
+                    mergeExternalChanges();
+                    if (storage.save(taskList.getAllTasks())) {
+                        return;
+                    }
+                }
+                ui.showError("the save file keeps being changed by another program, so I could not save. "
+                        + "I will try again after your next change.");
+            } catch (IOException e) {
+                ui.showError(e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Appends a newly added task to the save file, merging in any tasks that other
+     * programs appended to the file before it.
+     *
+     * @param task The task that was just added to the task list.
+     */
+    private static void appendTask(Task task) {
+        synchronized (saveFileLock) {
+            try {
+                addMergedTasks(storage.append(task));
+            } catch (IOException | DudeException e) {
+                ui.showError(e.getMessage());
+            }
         }
     }
 
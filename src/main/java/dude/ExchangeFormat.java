@@ -0,0 +1,29 @@
+package dude;
+
+import java.nio.file.Path;
+
+/**
+ * Represents the file formats that tasks can be exported to and imported from.
+ */
+public enum ExchangeFormat {
+    CSV, JSON_LINES, ICALENDAR;
+
+    /**
+     * Determines the format of a file from its extension.
+     *
+     * @param path The path of the file.
+     * @return The format of the file.
+     * @throws DudeException If the extension is not one of .csv, .jsonl or .ics.
+     */
+    public static ExchangeFormat fromPath(Path path) throws DudeException {
+        String fileName = path.getFileName().toString().toLowerCase();
+        if (fileName.endsWith(".csv")) {
+            return CSV;
+        } else if (fileName.endsWith(".jsonl")) {
+            return JSON_LINES;
+        } else if (fileName.endsWith(".ics")) {
+            return ICALENDAR;
+        }
+        throw new DudeException("I can only export to and import from .csv, .jsonl or .ics files.");
+    }
+}
@@ -0,0 +1,171 @@
+package dude;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * Represents a binary min-heap that also records where each item is in it, so that any
+ * item, not just the smallest, can be removed or have its key changed in O(log n) time.
+ * Items are ordered by their keys, and items with equal keys by the order given with them.
+ *
+ * @param <T> The type of the items, which are told apart by {@code equals}.
+ */
+public class IndexedHeap<T> {
+    private final ArrayList<Entry<T>> heap;
+    private final Map<T, Entry<T>> entries;
+
+    /**
+     * Holds an item together with its place in the heap.
+     */
+    private static class Entry<T> {
+        private final T item;
+        private final long order;
+        private long key;
+        private int position;
+
+        Entry(T item, long key, long order) {
+            this.item = item;
+            this.key = key;
+            this.order = order;
+        }
+
+        boolean isBefore(Entry<T> other) {
+            return key != other.key ? key < other.key : order < other.order;
+        }
+    }
+
+    public IndexedHeap() {
+        this.heap = new ArrayList<>();
+        this.entries = new HashMap<>();
+    }
+
+    /**
+     * Adds an item to the heap. An item that is already in the heap is left as it is.
+     *
+     * @param item  The item to be added.
+     * @param key   The key the item is ordered by, smallest first.
+     * @param order The order of the item among items with the same key, smallest first.
+     */
+    public void add(T item, long key, long order) {
+        if (entries.containsKey(item)) {
+            return;
+        }
+        Entry<T> entry = new Entry<>(item, key, order);
+        entries.put(item, entry);
+        entry.position = heap.size();
+        heap.add(entry);
+        siftUp(entry.position);
+    }
+
+    /**
+     * Removes an item from the heap, if it is there.
+     *
+     * @param item The item to be removed.
+     */
+    public void remove(T item) {
+        Entry<T> entry = entries.remove(item);
+        if (entry == null) {
+            return;
+        }
+        Entry<T> last = heap.remove(heap.size() - 1);
+        if (last != entry) {
+            place(last, entry.position);
+            siftUp(siftDown(last.position));
+        }
+    }
+
+    /**
+     * Changes the key of an item in the heap. Items not in the heap are ignored.
+     *
+     * @param item The item whose key changed.
+     * @param key  The new key of the item.
+     */
+    public void updateKey(T item, long key) {
+        Entry<T> entry = entries.get(item);
+        if (entry == null) {
+            return;
+        }
+        entry.key = key;
+        siftUp(siftDown(entry.position));
+    }
+
+    public boolean contains(T item) {
+        return entries.containsKey(item);
+    }
+
+    public int size() {
+        return heap.size();
+    }
+
+    /**
+     * Returns the items with the smallest keys, in order, without removing them.
+     * Only the parts of the heap above these items are visited, so this takes
+     * O(k log k) time however many items there are.
+     *
+     * @param count The number of items to return.
+     * @return Up to that many items, smallest first.
+     */
+    public ArrayList<T> getSmallest(int count) {
+        ArrayList<T> smallest = new ArrayList<>();
+        PriorityQueue<Entry<T>> frontier = new PriorityQueue<>((a, b) -> a.isBefore(b) ? -1 : 1);
+        if (!heap.isEmpty()) {
+            frontier.add(heap.get(0));
+        }
+        while (smallest.size() < count && !frontier.isEmpty()) {
+            Entry<T> entry = frontier.poll();
+            smallest.add(entry.item);
+            for (int child = 2 * entry.position + 1; child <= 2 * entry.position + 2 && child < heap.size(); child++) {
+                frontier.add(heap.get(child));
+            }
+        }
+        return smallest;
+    }
+
+    /**
+     * Moves the entry at the given position up until its parent comes before it.
+     *
+     * @return The position the entry ends up at.
+     */
+    private int siftUp(int position) {
+        Entry<T> entry = heap.get(position);
+        while (position > 0) {
+            int parent = (position - 1) / 2;
+            if (!entry.isBefore(heap.get(parent))) {
+                break;
+            }
+            place(heap.get(parent), position);
+            position = parent;
+        }
+        place(entry, position);
+        return position;
+    }
+
+    /**
+     * Moves the entry at the given position down until it comes before both its children.
+     *
+     * @return The position the entry ends up at.
+     */
+    private int siftDown(int position) {
+        Entry<T> entry = heap.get(position);
+        while (2 * position + 1 < heap.size()) {
+            int child = 2 * position + 1;
+            if (child + 1 < heap.size() && heap.get(child + 1).isBefore(heap.get(child))) {
+                child++;
+            }
+            if (!heap.get(child).isBefore(entry)) {
+                break;
+            }
+            place(heap.get(child), position);
+            position = child;
+        }
+        place(entry, position);
+        return position;
+    }
+
+    private void place(Entry<T> entry, int position) {
+        heap.set(position, entry);
+        entry.position = position;
+    }
+}
@@ -0,0 +1,66 @@
+package dude;
+
+/**
+ * Represents the filtering and sorting options of a list command.
+ * A field left as null means that the list is not filtered on it.
+ */
+public class ListQuery {
+
+    /**
+     * The orders in which a list view can be sorted.
+     */
+    public enum SortOrder {
+        INSERTION, DESCRIPTION, DATE
+    }
+
+    private final String typeSymbol;
+    private final Boolean isDone;
+    private final TagQuery tagQuery;
+    private final String date;
+    private final SortOrder sortOrder;
+
+    /**
+     * Initializes a new ListQuery with the given options.
+     *
+     * @param typeSymbol The task type to keep ("T", "D" or "E"), or null for all types.
+     * @param isDone     The completion status to keep, or null for both.
+     * @param tagQuery   The tag expression the tasks must match, or null for any tags.
+     * @param date       The date the tasks must fall on, or null for any date.
+     * @param sortOrder  The order in which the tasks are shown.
+     */
+    public ListQuery(String typeSymbol, Boolean isDone, TagQuery tagQuery, String date, SortOrder sortOrder) {
+        this.typeSymbol = typeSymbol;
+        this.isDone = isDone;
+        this.tagQuery = tagQuery;
+        this.date = date;
+        this.sortOrder = sortOrder;
+    }
+
+    public String getTypeSymbol() {
+        return typeSymbol;
+    }
+
+    public Boolean getIsDone() {
+        return isDone;
+    }
+
+    public TagQuery getTagQuery() {
+        return tagQuery;
+    }
+
+    public String getDate() {
+        return date;
+    }
+
+    public SortOrder getSortOrder() {
+        return sortOrder;
+    }
+
+    /**
+     * Returns true if the query has no options, i.e. it is a plain list command.
+     */
+    public boolean isUnfiltered() {
+        return typeSymbol == null && isDone == null && tagQuery == null && date == null
+                && sortOrder == SortOrder.INSERTION;
+    }
+}
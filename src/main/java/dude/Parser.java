@@ -1,11 +1,41 @@
 package dude;
 
+import dude.task.Priority;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
 /**
  * Deciphers user input into actionable components.
  * This class handles the logic of splitting strings to identify
  * command types, task descriptions, and dates.
  */
 public class Parser {
+    // a tag name that is only digits, such as the 123 in "fix bug #123", is not a tag
+    private static final String TAG_NAME = "[\\p{L}\\p{N}_-]*[\\p{L}_-][\\p{L}\\p{N}_-]*";
+    private static final Pattern TAG_NAME_PATTERN = Pattern.compile(TAG_NAME);
+    private static final Pattern TAG_PATTERN = Pattern.compile("(?<!\\S)#(" + TAG_NAME + ")(?!\\S)");
+    private static final Pattern PRIORITY_PATTERN =
+            Pattern.compile("(?<!\\S)!(high|medium|low)(?!\\S)", Pattern.CASE_INSENSITIVE);
+    private static final Pattern LABELS_PATTERN = Pattern.compile(
+            "(?<!\\S)(?:(?:#" + TAG_NAME + "|!(?:high|medium|low))(?:\\s+|$))+$", Pattern.CASE_INSENSITIVE);
+    private static final int DEFAULT_NEXT_COUNT = 5;
+    private static final DateTimeFormatter[] DATE_TIME_FORMATS = {
+        DateTimeFormatter.ofPattern("yyyy-MM-dd HHmm"),
+        DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm"),
+        DateTimeFormatter.ofPattern("d/M/yyyy HHmm"),
+    };
+    private static final DateTimeFormatter[] DATE_FORMATS = {
+        DateTimeFormatter.ofPattern("yyyy-MM-dd"),
+        DateTimeFormatter.ofPattern("d/M/yyyy"),
+    };
 
     /**
      * Checks if the user wants to exit the program.
@@ -58,6 +88,153 @@ public class Parser {
         return description;
     }
 
+    /**
+     * Extracts the file path given to the export or import command.
+     *
+     * @param message The raw user input string starting with "export" or "import".
+     * @return The file path.
+     * @throws DudeException If no file path is given.
+     */
+    public static Path getFilePath(String message) throws DudeException {
+        String[] messageParts = message.trim().split(" ", 2);
+        if (messageParts.length < 2 || messageParts[1].trim().isEmpty()) {
+            throw new DudeException("I need a .csv, .jsonl or .ics file to work with.");
+        }
+        return Paths.get(messageParts[1].trim());
+    }
+
+    /**
+     * Extracts the tags written as #words at the end of the message, such as "#work" in
+     * "todo fix build #work". Only the tags and priorities after the last other word count,
+     * so a # earlier on, as in "todo fix #3 in the guide", is part of the description.
+     *
+     * @param message The raw user input.
+     * @return The tags, without their leading #.
+     */
+    public static ArrayList<String> getTags(String message) {
+        ArrayList<String> tags = new ArrayList<>();
+        Matcher matcher = TAG_PATTERN.matcher(getLabels(message));
+        while (matcher.find()) {
+            tags.add(matcher.group(1));
+        }
+        return tags;
+    }
+
+    /**
+     * Checks if the tag is kept for the status of tasks, as #done is in list queries,
+     * so that it cannot be given to a task.
+     *
+     * @param tag The tag, without its leading #.
+     */
+    public static boolean isReservedTag(String tag) {
+        return tag.equalsIgnoreCase(TagQuery.DONE_TAG);
+    }
+
+    /**
+     * Checks if the text, without a leading #, can be used as a tag: letters, digits,
+     * _ and -, but not only digits.
+     */
+    public static boolean isTagName(String name) {
+        return TAG_NAME_PATTERN.matcher(name).matches();
+    }
+
+    /**
+     * Extracts the priority written as !high, !medium or !low at the end of the message,
+     * such as "!high" in "todo fix build !high", in the same place as tags can be.
+     * If there are several, the last one is used.
+     *
+     * @param message The raw user input.
+     * @return The priority, or {@link Priority#NONE} if none is given.
+     */
+    public static Priority getPriority(String message) {
+        Priority priority = Priority.NONE;
+        Matcher matcher = PRIORITY_PATTERN.matcher(getLabels(message));
+        while (matcher.find()) {
+            priority = Priority.fromName(matcher.group(1));
+        }
+        return priority;
+    }
+
+    /**
+     * Removes the tags and priority from the end of the message, so that the rest of it
+     * can be parsed as before.
+     */
+    public static String removeLabels(String message) {
+        Matcher matcher = LABELS_PATTERN.matcher(message);
+        return matcher.find() ? message.substring(0, matcher.start()).trim() : message.trim();
+    }
+
+    /**
+     * Returns the tags and priorities at the end of the message, or nothing if it does not
+     * end with any.
+     */
+    private static String getLabels(String message) {
+        Matcher matcher = LABELS_PATTERN.matcher(message);
+        return matcher.find() ? matcher.group() : "";
+    }
+
+    /**
+     * Extracts the task number from a priority command, such as 2 in "priority 2 high".
+     *
+     * @param message The raw user input string starting with "priority".
+     * @return The integer task number.
+     * @throws DudeException If the command does not have exactly a task number and a priority,
+     *                       or the task number is not a number.
+     */
+    public static int getPriorityTaskNumber(String message) throws DudeException {
+        String[] messageParts = message.trim().split("\\s+");
+        if (messageParts.length != 3) {
+            throw new DudeException("I need a task number and a priority, like: priority 2 high.");
+        }
+        return getTaskNumber(messageParts[0] + " " + messageParts[1]);
+    }
+
+    /**
+     * Extracts the new priority from a priority command, such as high in "priority 2 high".
+     *
+     * @param message The raw user input string starting with "priority".
+     * @return The new priority.
+     * @throws DudeException If the priority is not high, medium, low or none.
+     */
+    public static Priority getNewPriority(String message) throws DudeException {
+        String[] messageParts = message.trim().split("\\s+");
+        Priority priority = Priority.fromName(messageParts[messageParts.length - 1]);
+        if (messageParts.length != 3 || priority == null) {
+            throw new DudeException("the priority must be high, medium, low or none.");
+        }
+        return priority;
+    }
+
+    /**
+     * Extracts how many tasks the next command should show, such as 3 in "next 3".
+     *
+     * @param message The raw user input string starting with "next".
+     * @return The number of tasks to show, which is 5 if none is given.
+     * @throws DudeException If the number is not a positive integer.
+     */
+    public static int getNextCount(String message) throws DudeException {
+        String[] messageParts = message.trim().split("\\s+", 2);
+        if (messageParts.length < 2) {
+            return DEFAULT_NEXT_COUNT;
+        }
+        try {
+            int count = Integer.parseInt(messageParts[1].trim());
+            if (count <= 0) {
+                throw new DudeException("I can only show a positive number of tasks.");
+            }
+            return count;
+        } catch (NumberFormatException e) {
+            throw new DudeException("That's not a number.");
+        }
+    }
+
+    /**
+     * Checks if the character can be part of a tag name.
+     */
+    public static boolean isTagCharacter(char c) {
+        return Character.isLetterOrDigit(c) || c == '_' || c == '-';
+    }
+
     /**
      * Extracts the description by splitting at the first slash (/).
      */
@@ -96,4 +273,118 @@ public class Parser {
         return parts[1].trim();
     }
 
+    /**
+     * Extracts the filtering and sorting options of a list command.
+     * The accepted format is
+     * {@code list [todo|deadline|event] [done|undone] [TAG_QUERY] [/on DATE] [/sort description|date]},
+     * where the tag query is an expression such as {@code #work & !#done}.
+     *
+     * @param message The raw user input string starting with "list".
+     * @return The options of the list command.
+     * @throws DudeException If an option is unknown or is missing its value.
+     */
+    public static ListQuery getListQuery(String message) throws DudeException {
+        String details = message.trim().replaceFirst("(?i)^list", "").trim();
+        String sortValue = null;
+        int sortIndex = details.indexOf("/sort");
+        if (sortIndex >= 0) {
+            sortValue = details.substring(sortIndex + "/sort".length()).trim();
+            details = details.substring(0, sortIndex).trim();
+        }
+        String date = null;
+        int onIndex = details.indexOf("/on");
+        if (onIndex >= 0) {
+            date = details.substring(onIndex + "/on".length()).trim();
+            details = details.substring(0, onIndex).trim();
+            if (date.isEmpty()) {
+                throw new DudeException("your list /on cannot be empty");
+            }
+        }
+
+        TagQuery tagQuery = null;
+        int queryIndex = indexOfAny(details, "#!(");
+        if (queryIndex >= 0) {
+            tagQuery = TagQuery.parse(details.substring(queryIndex));
+            details = details.substring(0, queryIndex).trim();
+        }
+
+        String typeSymbol = null;
+        Boolean isDone = null;
+        for (String option : details.split("\\s+")) {
+            switch (option.toLowerCase()) {
+            case "":
+                break;
+            case "t":
+            case "todo":
+                typeSymbol = "T";
+                break;
+            case "d":
+            case "deadline":
+                typeSymbol = "D";
+                break;
+            case "e":
+            case "event":
+                typeSymbol = "E";
+                break;
+            case "done":
+                isDone = true;
+                break;
+            case "undone":
+                isDone = false;
+                break;
+            default:
+                throw new DudeException("I don't know the list option " + option + ".");
+            }
+        }
+        return new ListQuery(typeSymbol, isDone, tagQuery, date, getSortOrder(sortValue));
+    }
+
+    private static int indexOfAny(String text, String characters) {
+        for (int i = 0; i < text.length(); i++) {
+            if (characters.indexOf(text.charAt(i)) >= 0) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static ListQuery.SortOrder getSortOrder(String sortValue) throws DudeException {
+        if (sortValue == null) {
+            return ListQuery.SortOrder.INSERTION;
+        }
+        switch (sortValue.toLowerCase()) {
+        case "description":
+            return ListQuery.SortOrder.DESCRIPTION;
+        case "date":
+            return ListQuery.SortOrder.DATE;
+        default:
+            throw new DudeException("you can only /sort by description or date.");
+        }
+    }
+
+    /**
+     * Attempts to read a date/time written as yyyy-MM-dd or d/M/yyyy, optionally followed by a time.
+     * A date without a time is taken to be at the start of that day.
+     *
+     * @param text The date/time text, such as the /by of a deadline.
+     * @return The parsed date/time, or null if the text is not in a recognised format.
+     */
+    public static LocalDateTime parseDateTime(String text) {
+        String trimmed = text.trim();
+        for (DateTimeFormatter format : DATE_TIME_FORMATS) {
+            try {
+                return LocalDateTime.parse(trimmed, format);
+            } catch (DateTimeParseException e) {
+                // try the next format
+            }
+        }
+        for (DateTimeFormatter format : DATE_FORMATS) {
+            try {
+                return LocalDate.parse(trimmed, format).atStartOfDay();
+            } catch (DateTimeParseException e) {
+                // try the next format
+            }
+        }
+        return null;
+    }
 }
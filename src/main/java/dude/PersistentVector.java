@@ -0,0 +1,228 @@
+package dude;
+
+import java.util.AbstractList;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Represents an immutable list that shares structure with the versions it was made from.
+ * Elements are stored in a balanced binary tree in list order, where each node records
+ * how many elements are under it, so an element is found by its index rather than by a key.
+ * Appending, replacing or removing an element copies only the nodes on the path to it,
+ * so each takes O(log n) time, and the elements after a removed one are not moved.
+ * As a version never changes once made, it can be read by any number of threads without locks.
+ *
+ * @param <E> The type of the elements.
+ */
+public class PersistentVector<E> extends AbstractList<E> {
+    private static final PersistentVector<?> EMPTY = new PersistentVector<>(null);
+
+    private final Node root;
+
+    /**
+     * Holds an element together with the elements before and after it in the list.
+     * The heights of the two sides differ by at most one, which keeps the tree balanced.
+     */
+    private static class Node {
+        private final Object element;
+        private final Node left;
+        private final Node right;
+        private final int size;
+        private final int height;
+
+        Node(Object element, Node left, Node right) {
+            this.element = element;
+            this.left = left;
+            this.right = right;
+            this.size = sizeOf(left) + sizeOf(right) + 1;
+            this.height = Math.max(heightOf(left), heightOf(right)) + 1;
+        }
+    }
+
+    private PersistentVector(Node root) {
+        this.root = root;
+    }
+
+    /**
+     * Returns the empty vector.
+     */
+    @SuppressWarnings("unchecked")
+    public static <E> PersistentVector<E> empty() {
+        return (PersistentVector<E>) EMPTY;
+    }
+
+    @Override
+    public int size() {
+        return sizeOf(root);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public E get(int index) {
+        checkIndex(index);
+        Node node = root;
+        while (true) {
+            int leftSize = sizeOf(node.left);
+            if (index < leftSize) {
+                node = node.left;
+            } else if (index > leftSize) {
+                index -= leftSize + 1;
+                node = node.right;
+            } else {
+                return (E) node.element;
+            }
+        }
+    }
+
+    /**
+     * Returns the elements in order. Going through the whole list this way takes O(n) time,
+     * rather than the O(n log n) that looking up each index would.
+     */
+    @Override
+    public Iterator<E> iterator() {
+        return new Iterator<E>() {
+            private final ArrayDeque<Node> path = new ArrayDeque<>();
+            private Node next = root;
+
+            @Override
+            public boolean hasNext() {
+                return next != null || !path.isEmpty();
+            }
+
+            @Override
+            @SuppressWarnings("unchecked")
+            public E next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                while (next != null) {
+                    path.push(next);
+                    next = next.left;
+                }
+                Node node = path.pop();
+                next = node.right;
+                return (E) node.element;
+            }
+        };
+    }
+
+    /**
+     * Returns a new version with the element added to the end.
+     * This takes O(log n) time.
+     *
+     * @param element The element to be added.
+     * @return The new version.
+     */
+    public PersistentVector<E> append(E element) {
+        return new PersistentVector<>(insert(root, size(), element));
+    }
+
+    /**
+     * Returns a new version with the element at the given index replaced.
+     * This takes O(log n) time.
+     *
+     * @param index   The index of the element to be replaced.
+     * @param element The element to put in its place.
+     * @return The new version.
+     */
+    public PersistentVector<E> with(int index, E element) {
+        checkIndex(index);
+        return new PersistentVector<>(replace(root, index, element));
+    }
+
+    /**
+     * Returns a new version without the element at the given index.
+     * This takes O(log n) time.
+     *
+     * @param index The index of the element to be removed.
+     * @return The new version.
+     */
+    public PersistentVector<E> without(int index) {
+        checkIndex(index);
+        return new PersistentVector<>(remove(root, index));
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size()) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for length " + size());
+        }
+    }
+
+    private static Node insert(Node node, int index, Object element) {
+        if (node == null) {
+            return new Node(element, null, null);
+        }
+        int leftSize = sizeOf(node.left);
+        if (index <= leftSize) {
+            return balance(node.element, insert(node.left, index, element), node.right);
+        }
+        return balance(node.element, node.left, insert(node.right, index - leftSize - 1, element));
+    }
+
+    private static Node replace(Node node, int index, Object element) {
+        int leftSize = sizeOf(node.left);
+        if (index < leftSize) {
+            return new Node(node.element, replace(node.left, index, element), node.right);
+        } else if (index > leftSize) {
+            return new Node(node.element, node.left, replace(node.right, index - leftSize - 1, element));
+        }
+        return new Node(element, node.left, node.right);
+    }
+
+    private static Node remove(Node node, int index) {
+        int leftSize = sizeOf(node.left);
+        if (index < leftSize) {
+            return balance(node.element, remove(node.left, index), node.right);
+        } else if (index > leftSize) {
+            return balance(node.element, node.left, remove(node.right, index - leftSize - 1));
+        }
+        if (node.left == null) {
+            return node.right;
+        } else if (node.right == null) {
+            return node.left;
+        }
+        // the first element after the removed one takes its place
+        Node first = node.right;
+        while (first.left != null) {
+            first = first.left;
+        }
+        return balance(first.element, node.left, remove(node.right, 0));
+    }
+
+    /**
+     * Joins the element and the two sides into a node, rotating it if one side has become
+     * two levels taller than the other, as a single insert or remove can make it.
+     */
+    private static Node balance(Object element, Node left, Node right) {
+        if (heightOf(left) > heightOf(right) + 1) {
+            if (heightOf(left.left) < heightOf(left.right)) {
+                left = rotateLeft(left);
+            }
+            return new Node(left.element, left.left, new Node(element, left.right, right));
+        }
+        if (heightOf(right) > heightOf(left) + 1) {
+            if (heightOf(right.right) < heightOf(right.left)) {
+                right = rotateRight(right);
+            }
+            return new Node(right.element, new Node(element, left, right.left), right.right);
+        }
+        return new Node(element, left, right);
+    }
+
+    private static Node rotateLeft(Node node) {
+        return new Node(node.right.element, new Node(node.element, node.left, node.right.left), node.right.right);
+    }
+
+    private static Node rotateRight(Node node) {
+        return new Node(node.left.element, node.left.left, new Node(node.element, node.left.right, node.right));
+    }
+
+    private static int sizeOf(Node node) {
+        return node == null ? 0 : node.size;
+    }
+
+    private static int heightOf(Node node) {
+        return node == null ? 0 : node.height;
+    }
+}
@@ -0,0 +1,163 @@
+package dude;
+
+import dude.task.Task;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Reminds the user of deadlines and events that are coming up.
+ * Every pending task with a recognised date has a reminder on a {@link TimingWheel},
+ * set to go off a lead time before the task is due. The reminders are kept in step with
+ * the task list by listening to it, so adding, marking, unmarking or deleting a task
+ * schedules, moves or cancels its reminder in O(1) time. A background daemon thread moves the
+ * wheel forward once a second and passes the reminders that go off to a callback,
+ * so the user is reminded without the input loop having to wait on anything.
+ * A tick that goes wrong is reported to another callback, and the wheel keeps turning,
+ * as an exception escaping a tick would stop every tick after it.
+ */
+public class ReminderScheduler implements TaskListListener {
+    private static final long TICK_SECONDS = 1;
+
+    private final Duration leadTime;
+    private final Consumer<Task> onReminder;
+    private final Consumer<String> onError;
+    private final TimingWheel<Task> wheel;
+    private final Map<Task, TimingWheel.Timer<Task>> reminders;
+
+    /**
+     * Initializes a new ReminderScheduler with no reminders.
+     *
+     * @param leadTime   How long before a task is due its reminder goes off.
+     * @param onReminder The action to run with each task whose reminder goes off.
+     * @param onError    The action to run with a description of anything that went wrong in a tick.
+     */
+    public ReminderScheduler(Duration leadTime, Consumer<Task> onReminder, Consumer<String> onError) {
+        this.leadTime = leadTime;
+        this.onReminder = onReminder;
+        this.onError = onError;
+        this.wheel = new TimingWheel<>(getCurrentSecond());
+        this.reminders = new HashMap<>();
+    }
+
+    /**
+     * Starts going off reminders on a background daemon thread.
+     * Reminders that fell due before this is called go off on the first tick.
+     */
+    public void start() {
+        ScheduledExecutorService ticker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "dude-reminders");
+            thread.setDaemon(true);
+            return thread;
+        });
+        ticker.scheduleAtFixedRate(this::tick, TICK_SECONDS, TICK_SECONDS, TimeUnit.SECONDS);
+    }
+
+    @Override
+    public synchronized void taskAdded(Task task) {
+        schedule(task);
+    }
+
+    @Override
+    public synchronized void taskRemoved(Task task) {
+        cancel(task);
+    }
+
+    /**
+     * Moves the reminder of the task over to its changed copy. A task that was done has no
+     * reminder, so one is scheduled if it was unmarked; a reminder that already went off
+     * is not set again.
+     */
+    @Override
+    public synchronized void taskChanged(Task oldTask, Task task) {
+        if (cancel(oldTask) || oldTask.isDone()) {
+            schedule(task);
+        }
+    }
+
+    /**
+     * Returns the number of reminders that have not gone off yet.
+     */
+    public synchronized int getPendingCount() {
+        return reminders.size();
+    }
+
+    /**
+     * Moves the wheel up to the current second and runs the callback for the reminders
+     * that went off. The callback is run without holding the lock, so that it does not
+     * hold up changes to the task list. Nothing thrown gets out of a tick: a reminder that
+     * fails is reported, and the rest still go off.
+     */
+    private void tick() {
+        ArrayList<Task> dueTasks;
+        try {
+            synchronized (this) {
+                dueTasks = wheel.advanceTo(getCurrentSecond());
+                for (Task task : dueTasks) {
+                    reminders.remove(task);
+                }
+            }
+        } catch (RuntimeException e) {
+            onError.accept("I could not check for reminders: " + e);
+            return;
+        }
+        for (Task task : dueTasks) {
+            try {
+                if (!task.isDone()) {
+                    onReminder.accept(task);
+                }
+            } catch (RuntimeException e) {
+                onError.accept("I could not remind you about " + task + ": " + e);
+            }
+        }
+    }
+
+    /**
+     * Schedules a reminder for the task, unless it is done, has no recognised date,
+     * or is already past due.
+     */
+    private void schedule(Task task) {
+        if (task.isDone() || task.getDate() == null) {
+            return;
+        }
+        LocalDateTime dueTime = Parser.parseDateTime(task.getDate());
+        if (dueTime == null) {
+            return;
+        }
+        long dueSecond = toEpochSecond(dueTime);
+        if (dueSecond <= getCurrentSecond()) {
+            return;
+        }
+        reminders.put(task, wheel.schedule(task, dueSecond - leadTime.getSeconds()));
+    }
+
+    /**
+     * Cancels the reminder of the task.
+     *
+     * @return Whether the task had a reminder that had not gone off yet.
+     */
+    private boolean cancel(Task task) {
+        TimingWheel.Timer<Task> timer = reminders.remove(task);
+        if (timer == null) {
+            return false;
+        }
+        wheel.cancel(timer);
+        return true;
+    }
+
+    private static long toEpochSecond(LocalDateTime dateTime) {
+        return dateTime.atZone(ZoneId.systemDefault()).toEpochSecond();
+    }
+
+    private static long getCurrentSecond() {
+        return System.currentTimeMillis() / 1000;
+    }
+}
@@ -0,0 +1,415 @@
+package dude;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * Represents a compressed set of non-negative integers, laid out like a Roaring bitmap.
+ * The integers are grouped by their upper 16 bits into chunks of 65536. A sparse chunk
+ * is stored as a sorted array of its lower 16 bits, and a dense chunk as a 65536-bit
+ * bitmap, so both few and many integers take little space and set operations work on
+ * whole arrays or 64-bit words at a time.
+ */
+public class RoaringBitmap {
+    private static final int MAX_ARRAY_SIZE = 4096;
+    private static final int BITMAP_WORDS = 1024;
+
+    private char[] keys;
+    private Container[] containers;
+    private int size;
+
+    public RoaringBitmap() {
+        this.keys = new char[4];
+        this.containers = new Container[4];
+        this.size = 0;
+    }
+
+    /**
+     * Adds the integer to the set.
+     */
+    public void add(int value) {
+        char key = highBits(value);
+        int i = findKey(key);
+        if (i < 0) {
+            i = -i - 1;
+            insertContainer(i, key, new ArrayContainer());
+        }
+        containers[i] = containers[i].add(lowBits(value));
+    }
+
+    /**
+     * Removes the integer from the set, if it is there.
+     */
+    public void remove(int value) {
+        int i = findKey(highBits(value));
+        if (i < 0) {
+            return;
+        }
+        containers[i] = containers[i].remove(lowBits(value));
+        if (containers[i].getCardinality() == 0) {
+            System.arraycopy(keys, i + 1, keys, i, size - i - 1);
+            System.arraycopy(containers, i + 1, containers, i, size - i - 1);
+            containers[--size] = null;
+        }
+    }
+
+    public boolean contains(int value) {
+        int i = findKey(highBits(value));
+        return i >= 0 && containers[i].contains(lowBits(value));
+    }
+
+    /**
+     * Returns the number of integers in the set.
+     */
+    public int getCardinality() {
+        int cardinality = 0;
+        for (int i = 0; i < size; i++) {
+            cardinality += containers[i].getCardinality();
+        }
+        return cardinality;
+    }
+
+    /**
+     * Runs the action on every integer in the set, in increasing order.
+     */
+    public void forEach(IntConsumer action) {
+        for (int i = 0; i < size; i++) {
+            int high = keys[i] << 16;
+            containers[i].forEach(low -> action.accept(high | low));
+        }
+    }
+
+    /**
+     * Returns a new set of the integers in both this set and the other.
+     */
+    public RoaringBitmap and(RoaringBitmap other) {
+        RoaringBitmap result = new RoaringBitmap();
+        int i = 0;
+        int j = 0;
+        while (i < size && j < other.size) {
+            if (keys[i] < other.keys[j]) {
+                i++;
+            } else if (keys[i] > other.keys[j]) {
+                j++;
+            } else {
+                result.appendIfNotEmpty(keys[i], containers[i].and(other.containers[j]));
+                i++;
+                j++;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns a new set of the integers in either this set or the other.
+     */
+    public RoaringBitmap or(RoaringBitmap other) {
+        RoaringBitmap result = new RoaringBitmap();
+        int i = 0;
+        int j = 0;
+        while (i < size || j < other.size) {
+            if (j >= other.size || (i < size && keys[i] < other.keys[j])) {
+                result.appendIfNotEmpty(keys[i], containers[i].copy());
+                i++;
+            } else if (i >= size || keys[i] > other.keys[j]) {
+                result.appendIfNotEmpty(other.keys[j], other.containers[j].copy());
+                j++;
+            } else {
+                result.appendIfNotEmpty(keys[i], containers[i].or(other.containers[j]));
+                i++;
+                j++;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns a new set of the integers in this set but not in the other.
+     */
+    public RoaringBitmap andNot(RoaringBitmap other) {
+        RoaringBitmap result = new RoaringBitmap();
+        int j = 0;
+        for (int i = 0; i < size; i++) {
+            while (j < other.size && other.keys[j] < keys[i]) {
+                j++;
+            }
+            if (j < other.size && other.keys[j] == keys[i]) {
+                result.appendIfNotEmpty(keys[i], containers[i].andNot(other.containers[j]));
+            } else {
+                result.appendIfNotEmpty(keys[i], containers[i].copy());
+            }
+        }
+        return result;
+    }
+
+    private static char highBits(int value) {
+        return (char) (value >>> 16);
+    }
+
+    private static char lowBits(int value) {
+        return (char) value;
+    }
+
+    /**
+     * Finds the position of the chunk with the given key, or where it would be inserted,
+     * encoded as for {@link Arrays#binarySearch(char[], int, int, char)}.
+     */
+    private int findKey(char key) {
+        return Arrays.binarySearch(keys, 0, size, key);
+    }
+
+    private void insertContainer(int index, char key, Container container) {
+        if (size == keys.length) {
+            keys = Arrays.copyOf(keys, size * 2);
+            containers = Arrays.copyOf(containers, size * 2);
+        }
+        System.arraycopy(keys, index, keys, index + 1, size - index);
+        System.arraycopy(containers, index, containers, index + 1, size - index);
+        keys[index] = key;
+        containers[index] = container;
+        size++;
+    }
+
+    private void appendIfNotEmpty(char key, Container container) {
+        if (container.getCardinality() > 0) {
+            insertContainer(size, key, container);
+        }
+    }
+
+    /**
+     * Represents the lower 16 bits of the integers in one chunk.
+     * Operations that change the contents return the container to use from then on,
+     * which may be of the other kind once the chunk becomes dense or sparse.
+     */
+    private abstract static class Container {
+        abstract Container add(char value);
+
+        abstract Container remove(char value);
+
+        abstract boolean contains(char value);
+
+        abstract int getCardinality();
+
+        abstract void forEach(IntConsumer action);
+
+        abstract Container copy();
+
+        abstract BitmapContainer toBitmap();
+
+        Container and(Container other) {
+            if (this instanceof ArrayContainer) {
+                return ((ArrayContainer) this).filter(other, true);
+            } else if (other instanceof ArrayContainer) {
+                return ((ArrayContainer) other).filter(this, true);
+            }
+            return ((BitmapContainer) this).combine((BitmapContainer) other, Operation.AND).shrink();
+        }
+
+        Container or(Container other) {
+            return toBitmap().combine(other.toBitmap(), Operation.OR).shrink();
+        }
+
+        Container andNot(Container other) {
+            if (this instanceof ArrayContainer) {
+                return ((ArrayContainer) this).filter(other, false);
+            }
+            return ((BitmapContainer) this).combine(other.toBitmap(), Operation.AND_NOT).shrink();
+        }
+    }
+
+    private enum Operation {
+        AND, OR, AND_NOT
+    }
+
+    /**
+     * Holds a sparse chunk as a sorted array of values.
+     */
+    private static class ArrayContainer extends Container {
+        private char[] values;
+        private int cardinality;
+
+        ArrayContainer() {
+            this(new char[4], 0);
+        }
+
+        ArrayContainer(char[] values, int cardinality) {
+            this.values = values;
+            this.cardinality = cardinality;
+        }
+
+        @Override
+        Container add(char value) {
+            int i = Arrays.binarySearch(values, 0, cardinality, value);
+            if (i >= 0) {
+                return this;
+            }
+            if (cardinality == MAX_ARRAY_SIZE) {
+                return toBitmap().add(value);
+            }
+            i = -i - 1;
+            if (cardinality == values.length) {
+                values = Arrays.copyOf(values, Math.min(cardinality * 2, MAX_ARRAY_SIZE));
+            }
+            System.arraycopy(values, i, values, i + 1, cardinality - i);
+            values[i] = value;
+            cardinality++;
+            return this;
+        }
+
+        @Override
+        Container remove(char value) {
+            int i = Arrays.binarySearch(values, 0, cardinality, value);
+            if (i >= 0) {
+                System.arraycopy(values, i + 1, values, i, cardinality - i - 1);
+                cardinality--;
+            }
+            return this;
+        }
+
+        @Override
+        boolean contains(char value) {
+            return Arrays.binarySearch(values, 0, cardinality, value) >= 0;
+        }
+
+        @Override
+        int getCardinality() {
+            return cardinality;
+        }
+
+        @Override
+        void forEach(IntConsumer action) {
+            for (int i = 0; i < cardinality; i++) {
+                action.accept(values[i]);
+            }
+        }
+
+        @Override
+        Container copy() {
+            return new ArrayContainer(Arrays.copyOf(values, Math.max(cardinality, 1)), cardinality);
+        }
+
+        @Override
+        BitmapContainer toBitmap() {
+            BitmapContainer bitmap = new BitmapContainer();
+            for (int i = 0; i < cardinality; i++) {
+                bitmap.add(values[i]);
+            }
+            return bitmap;
+        }
+
+        /**
+         * Keeps the values that are in, or not in, the other container.
+         */
+        ArrayContainer filter(Container other, boolean isKeptIfContained) {
+            char[] kept = new char[Math.max(cardinality, 1)];
+            int keptCount = 0;
+            for (int i = 0; i < cardinality; i++) {
+                if (other.contains(values[i]) == isKeptIfContained) {
+                    kept[keptCount++] = values[i];
+                }
+            }
+            return new ArrayContainer(kept, keptCount);
+        }
+    }
+
+    /**
+     * Holds a dense chunk as a bitmap of 65536 bits.
+     */
+    private static class BitmapContainer extends Container {
+        private final long[] words;
+        private int cardinality;
+
+        BitmapContainer() {
+            this(new long[BITMAP_WORDS], 0);
+        }
+
+        BitmapContainer(long[] words, int cardinality) {
+            this.words = words;
+            this.cardinality = cardinality;
+        }
+
+        @Override
+        Container add(char value) {
+            long before = words[value >>> 6];
+            words[value >>> 6] |= 1L << value;
+            if (before != words[value >>> 6]) {
+                cardinality++;
+            }
+            return this;
+        }
+
+        @Override
+        Container remove(char value) {
+            long before = words[value >>> 6];
+            words[value >>> 6] &= ~(1L << value);
+            if (before != words[value >>> 6]) {
+                cardinality--;
+            }
+            return cardinality <= MAX_ARRAY_SIZE ? shrink() : this;
+        }
+
+        @Override
+        boolean contains(char value) {
+            return (words[value >>> 6] & (1L << value)) != 0;
+        }
+
+        @Override
+        int getCardinality() {
+            return cardinality;
+        }
+
+        @Override
+        void forEach(IntConsumer action) {
+            for (int w = 0; w < BITMAP_WORDS; w++) {
+                long word = words[w];
+                while (word != 0) {
+                    action.accept((w << 6) + Long.numberOfTrailingZeros(word));
+                    word &= word - 1;
+                }
+            }
+        }
+
+        @Override
+        Container copy() {
+            return new BitmapContainer(words.clone(), cardinality);
+        }
+
+        @Override
+        BitmapContainer toBitmap() {
+            return this;
+        }
+
+        BitmapContainer combine(BitmapContainer other, Operation operation) {
+            long[] result = new long[BITMAP_WORDS];
+            int resultCardinality = 0;
+            for (int w = 0; w < BITMAP_WORDS; w++) {
+                switch (operation) {
+                case AND:
+                    result[w] = words[w] & other.words[w];
+                    break;
+                case OR:
+                    result[w] = words[w] | other.words[w];
+                    break;
+                default:
+                    result[w] = words[w] & ~other.words[w];
+                    break;
+                }
+                resultCardinality += Long.bitCount(result[w]);
+            }
+            return new BitmapContainer(result, resultCardinality);
+        }
+
+        /**
+         * Converts the chunk back to an array once it is sparse enough.
+         */
+        Container shrink() {
+            if (cardinality > MAX_ARRAY_SIZE) {
+                return this;
+            }
+            char[] values = new char[Math.max(cardinality, 1)];
+            int[] count = {0};
+            forEach(value -> values[count[0]++] = (char) value);
+            return new ArrayContainer(values, cardinality);
+        }
+    }
+}
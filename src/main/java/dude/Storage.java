@@ -5,13 +5,24 @@ import dude.task.Event;
 import dude.task.Task;
 import dude.task.Todo;
 
+import java.io.EOFException;
 import java.io.File;
 import java.io.FileNotFoundException;
-import java.io.FileWriter;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Scanner;
 
 /**
@@ -21,7 +32,20 @@ import java.util.Scanner;
  * Task objects back into a persistent string format.
  */
 public class Storage {
+    private static final int TAIL_CHECK_LENGTH = 64;
+    private static final long OPEN_LINE_WAIT_MILLIS = 50;
+    private static final String TEMP_SUFFIX = ".tmp";
+    private static final String JOURNAL_SUFFIX = ".journal";
+    private static final String BACKUP_SUFFIX = ".bak";
+    private static final String CONFLICT_SUFFIX = ".conflict";
+    private static final String CORRUPT_SUFFIX = ".corrupt-";
+    private static final DateTimeFormatter CORRUPT_TIME_FORMAT = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+    private static final String LOCK_SUFFIX = ".lock";
+
     private final Path filePath;
+    private long lastReadOffset;
+    private byte[] lastReadTail = new byte[0];
+    private boolean isSavedInPlace;
 
     public Storage(String filePath) {
         this.filePath = Paths.get(filePath);
@@ -46,24 +70,495 @@ public class Storage {
         return f.createNewFile();
     }
 
+    /**
+     * Sets whether saves rewrite the data file in place, instead of replacing it with a new file.
+     * Rewriting it keeps the same file, so that other programs which keep it open for appending
+     * go on appending to the file that Dude reads. It costs more, as each save also writes a
+     * journal to stay crash-safe and a copy of the old file as the backup, and a line that a
+     * program appends without holding the lock at the very moment of a save may be lost.
+     *
+     * @param isSavedInPlace Whether saves rewrite the data file in place.
+     */
+    public void setSavedInPlace(boolean isSavedInPlace) {
+        this.isSavedInPlace = isSavedInPlace;
+    }
+
     /**
      * Saves the current task list to the hard disk.
-     * * @param tasks The list of tasks to be written to the file.
+     * The tasks are written and flushed to disk in a new file, which then atomically replaces
+     * the data file, so a crash leaves either the old or the new file in place, never a
+     * half-written one. The previous version of the file is kept as the backup.
+     * If saves are made in place, the data file is rewritten instead, after the new contents
+     * are flushed to a journal that {@link #recover()} uses to finish the rewrite if Dude stops
+     * halfway through.
+     * The lock file is held throughout, so that programs which hold it while appending wait
+     * until the save is complete.
+     * Nothing is saved if another program has changed the file since it was last read,
+     * so that its changes are not overwritten; the caller should merge them and try again.
+     * A last line that another program is part way through is given a moment to be finished,
+     * and if it is not, it is kept after the saved tasks, to be read once it is complete.
      *
+     * @param tasks The list of tasks to be written to the file.
+     * @return True if the tasks were saved, false if the file had unread lines.
      * @throws IOException If there is an error writing to the file.
      */
-    public void save(ArrayList<Task> tasks) throws IOException {
-        try (FileWriter fw = new FileWriter(filePath.toFile(), false)) {
-            for (Task task : tasks) {
-                fw.write(task.toFileFormat() + System.lineSeparator());
+    public synchronized boolean save(List<Task> tasks) throws IOException {
+        StringBuilder content = new StringBuilder();
+        for (Task task : tasks) {
+            content.append(task.toFileFormat()).append(System.lineSeparator());
+        }
+        byte[] written = content.toString().getBytes(Charset.defaultCharset());
+        FileLock lock = lockDataFile();
+        try (FileChannel channel = FileChannel.open(filePath, StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            waitForOpenLine(channel);
+            if (hasUnreadChanges(channel)) {
+                return false;
+            }
+            keepBackup(channel);
+            replaceContents(channel, written, lastReadOffset);
+        } finally {
+            unlockDataFile(lock);
+        }
+        return true;
+    }
+
+    /**
+     * Locks the lock file kept beside the data file. Every program that writes to the data
+     * file holds this lock while it writes, so that no line is lost or split by a save.
+     * The data file itself cannot be locked for this, as saves replace it with a new file.
+     *
+     * @return The lock, to be released with {@link #unlockDataFile(FileLock)}.
+     */
+    private FileLock lockDataFile() throws IOException {
+        FileChannel lockFile = FileChannel.open(getSiblingPath(LOCK_SUFFIX), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE);
+        try {
+            return lockFile.lock();
+        } catch (IOException e) {
+            lockFile.close();
+            throw e;
+        }
+    }
+
+    private static void unlockDataFile(FileLock lock) throws IOException {
+        // closing the lock file releases the lock
+        lock.channel().close();
+    }
+
+    /**
+     * Keeps the data file as it is before a save as the backup, replacing the previous backup.
+     * When the file is about to be replaced, the backup is a hard link to it where the file
+     * system allows, which costs no copying. Otherwise, and always when the file is about to
+     * be rewritten in place, it is a copy.
+     */
+    private void keepBackup(FileChannel channel) throws IOException {
+        Path backupPath = getSiblingPath(BACKUP_SUFFIX);
+        if (!isSavedInPlace) {
+            Files.deleteIfExists(backupPath);
+            try {
+                Files.createLink(backupPath, filePath);
+                return;
+            } catch (UnsupportedOperationException | IOException e) {
+                // the file system has no hard links, so the file is copied
+            }
+        }
+        Path tempPath = getSiblingPath(TEMP_SUFFIX);
+        Files.write(tempPath, readRange(channel, 0, channel.size()));
+        Files.move(tempPath, backupPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Replaces the contents of the locked data file, by replacing the file or, if saves are
+     * made in place, by rewriting it through the journal. Lines after the first
+     * {@code knownLength} bytes, which other programs appended, are kept after the new
+     * contents, where they are picked up as appends.
+     *
+     * @param knownLength The length of the file that the new contents account for.
+     */
+    private void replaceContents(FileChannel channel, byte[] content, long knownLength) throws IOException {
+        if (isSavedInPlace) {
+            // lines appended after the known length would be overwritten by longer contents,
+            // so they are journaled with them
+            long length = channel.size();
+            boolean isGrowing = content.length > knownLength;
+            byte[] journaled = isGrowing ? concat(content, readRange(channel, knownLength, length)) : content;
+            long appendedStart = isGrowing ? length : knownLength;
+            Path journalPath = writeJournal(journaled, appendedStart);
+            rewrite(channel, journaled, appendedStart);
+            Files.delete(journalPath);
+            compact(channel, journaled.length, appendedStart);
+        } else {
+            replaceFile(channel, content, knownLength);
+        }
+        markReadUpTo(content.length, new byte[0], content, content.length);
+    }
+
+    /**
+     * Replaces the data file with a new file holding the given contents and the lines appended
+     * after the first {@code knownLength} bytes. The new file is written and flushed to disk
+     * in full before it takes the place of the old one.
+     * A program that does not hold the lock may still append to the old file just before it is
+     * replaced; what it appends until the new file is in place is copied onto the new file.
+     */
+    private void replaceFile(FileChannel channel, byte[] content, long knownLength) throws IOException {
+        long oldLength = channel.size();
+        byte[] appended = readRange(channel, knownLength, oldLength);
+        Path tempPath = getSiblingPath(TEMP_SUFFIX);
+        try (FileChannel temp = FileChannel.open(tempPath, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            writeFully(temp, content, 0);
+            writeFully(temp, appended, content.length);
+            temp.force(true);
+        }
+        Files.move(tempPath, filePath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        forceParentDirectory();
+
+        // the channel still reads the old file, which is no longer in place
+        byte[] lateAppends = readRange(channel, oldLength, channel.size());
+        if (lateAppends.length > 0) {
+            try (FileChannel file = FileChannel.open(filePath, StandardOpenOption.WRITE,
+                    StandardOpenOption.APPEND)) {
+                ByteBuffer buffer = ByteBuffer.wrap(lateAppends);
+                while (buffer.hasRemaining()) {
+                    file.write(buffer);
+                }
+            }
+        }
+    }
+
+    private static byte[] concat(byte[] first, byte[] second) {
+        byte[] joined = Arrays.copyOf(first, first.length + second.length);
+        System.arraycopy(second, 0, joined, first.length, second.length);
+        return joined;
+    }
+
+    /**
+     * Writes the contents about to be saved to the journal file and flushes it to disk.
+     * The journal starts with a line giving the offset in the data file from which lines
+     * are kept after the contents, followed by the contents.
+     * They go to a temporary file that is renamed to the journal once complete, so the
+     * journal is never found half-written.
+     *
+     * @param appendedStart The offset from which lines other programs appended are kept.
+     * @return The path of the journal.
+     */
+    private Path writeJournal(byte[] content, long appendedStart) throws IOException {
+        Path tempPath = getSiblingPath(TEMP_SUFFIX);
+        byte[] header = (appendedStart + "\n").getBytes(Charset.defaultCharset());
+        try (FileChannel journal = FileChannel.open(tempPath, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            writeFully(journal, header, 0);
+            writeFully(journal, content, header.length);
+            journal.force(true);
+        }
+        Path journalPath = getSiblingPath(JOURNAL_SUFFIX);
+        Files.move(tempPath, journalPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        forceParentDirectory();
+        return journalPath;
+    }
+
+    /**
+     * Overwrites the locked data file with the given contents and flushes it to disk, keeping
+     * the lines from {@code appendedStart} on, which other programs appended, after them.
+     * If the contents are no longer than that offset, nothing from it on is moved, and
+     * whatever is left of the old contents before it is blanked out, to be cut out by
+     * {@link #compact} once the journal is no longer needed. That way, the lines appended
+     * from the offset on are still where the journal says they are if the rewrite is
+     * interrupted, even by a program that kept appending until it was finished.
+     * Otherwise, the lines appended are moved to after the contents, and a line that a program
+     * which does not hold the lock appends as the contents are written may be lost.
+     */
+    private static void rewrite(FileChannel channel, byte[] content, long appendedStart) throws IOException {
+        if (content.length <= appendedStart) {
+            writeFully(channel, content, 0);
+            writeFully(channel, getBlankLine((int) (appendedStart - content.length)), content.length);
+            channel.force(true);
+            return;
+        }
+        long oldLength = channel.size();
+        byte[] earlyAppends = readRange(channel, appendedStart, oldLength);
+        writeFully(channel, content, 0);
+        byte[] lateAppends = readRange(channel, Math.max(oldLength, content.length), channel.size());
+        writeFully(channel, earlyAppends, content.length);
+        writeFully(channel, lateAppends, content.length + earlyAppends.length);
+        channel.force(true);
+    }
+
+    /**
+     * Returns a blank line of the given length, which is skipped when the file is read.
+     */
+    private static byte[] getBlankLine(int length) {
+        byte[] blank = new byte[length];
+        Arrays.fill(blank, (byte) ' ');
+        if (length > 0) {
+            blank[length - 1] = '\n';
+        }
+        return blank;
+    }
+
+    /**
+     * Cuts out the blanked-out end of the old contents left by {@link #rewrite}, moving the
+     * lines from {@code appendedStart} on to straight after the new contents. A line that a
+     * program which does not hold the lock appends as they are moved may be lost.
+     *
+     * @param contentLength The length of the new contents.
+     */
+    private static void compact(FileChannel channel, long contentLength, long appendedStart) throws IOException {
+        if (contentLength >= appendedStart) {
+            return;
+        }
+        byte[] appended = readRange(channel, appendedStart, channel.size());
+        channel.truncate(contentLength);
+        writeFully(channel, appended, contentLength);
+        channel.force(true);
+    }
+
+    /**
+     * Counts how many bytes of the contents being rewritten were already written past the
+     * offset from which appended lines are kept, when the contents are longer than that.
+     * Up to that offset, an interrupted rewrite leaves the file in any state; past it, the
+     * file holds the start of the rest of the contents, if the rewrite got that far, and then
+     * the lines that were appended.
+     */
+    private static long getWrittenPastLength(FileChannel channel, byte[] content, long appendedStart)
+            throws IOException {
+        long end = Math.min(channel.size(), content.length);
+        if (end <= appendedStart) {
+            return 0;
+        }
+        byte[] written = readRange(channel, appendedStart, end);
+        int length = 0;
+        while (length < written.length && written[length] == content[(int) appendedStart + length]) {
+            length++;
+        }
+        return length;
+    }
+
+    /**
+     * Flushes the directory entry of a renamed file to disk. Not every platform can open
+     * a directory for this, in which case the rename is left to the file system.
+     */
+    private void forceParentDirectory() {
+        Path parent = filePath.toAbsolutePath().getParent();
+        try (FileChannel directory = FileChannel.open(parent, StandardOpenOption.READ)) {
+            directory.force(true);
+        } catch (IOException e) {
+            // the directory cannot be flushed on this platform
+        }
+    }
+
+    /**
+     * Checks the data file left by the last run and repairs it if needed. A save in place that
+     * was interrupted after its journal was written is finished from the journal, keeping the
+     * lines that other programs have appended to the data file since. A leftover temporary
+     * file from a save interrupted before that is removed, and a missing data file is
+     * restored from the backup.
+     * Lines that cannot be read, such as the last line of an append that was cut off, are
+     * left out of the data file, with the damaged file kept aside, so that every task that
+     * can still be read is kept. Only if no task at all can be read is the data file
+     * restored from the backup, which may be older than the data file.
+     *
+     * @return A description of the repair made, or null if the data file was fine.
+     * @throws IOException If there is an error reading or repairing the files.
+     */
+    public synchronized String recover() throws IOException {
+        Files.deleteIfExists(getSiblingPath(TEMP_SUFFIX));
+        Path backupPath = getSiblingPath(BACKUP_SUFFIX);
+        Path journalPath = getSiblingPath(JOURNAL_SUFFIX);
+        if (Files.exists(journalPath)) {
+            byte[] journal = Files.readAllBytes(journalPath);
+            int headerLength = 0;
+            while (journal[headerLength] != '\n') {
+                headerLength++;
+            }
+            long appendedStart = Long.parseLong(new String(journal, 0, headerLength, Charset.defaultCharset()));
+            byte[] content = Arrays.copyOfRange(journal, headerLength + 1, journal.length);
+            FileLock lock = lockDataFile();
+            try (FileChannel channel = FileChannel.open(filePath, StandardOpenOption.CREATE,
+                    StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                appendedStart += getWrittenPastLength(channel, content, appendedStart);
+                rewrite(channel, content, appendedStart);
+                Files.delete(journalPath);
+                compact(channel, content.length, appendedStart);
+            } finally {
+                unlockDataFile(lock);
+            }
+            return "the last save was interrupted, so I finished it from " + journalPath.toAbsolutePath();
+        }
+        boolean isBackupUsable = Files.exists(backupPath) && isReadable(backupPath);
+        if (!Files.exists(filePath)) {
+            if (!isBackupUsable) {
+                return null;
+            }
+            Files.copy(backupPath, filePath);
+            return "the save file was missing, so I restored it from " + backupPath.toAbsolutePath();
+        }
+
+        FileLock lock = lockDataFile();
+        try (FileChannel channel = FileChannel.open(filePath, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            byte[] content = readRange(channel, 0, channel.size());
+            ArrayList<String> readableLines = new ArrayList<>();
+            int damagedCount = getReadableLines(content, readableLines);
+            if (damagedCount == 0) {
+                return null;
+            }
+            Path corruptPath = keepDamagedFile(content);
+            if (readableLines.isEmpty() && isBackupUsable) {
+                replaceContents(channel, Files.readAllBytes(backupPath), content.length);
+                return "none of the save file could be read, so I restored it from "
+                        + backupPath.toAbsolutePath() + " and kept the damaged file at " + corruptPath.toAbsolutePath();
+            }
+            StringBuilder salvaged = new StringBuilder();
+            for (String line : readableLines) {
+                salvaged.append(line).append(System.lineSeparator());
+            }
+            replaceContents(channel, salvaged.toString().getBytes(Charset.defaultCharset()), content.length);
+            String text = new String(content, Charset.defaultCharset());
+            boolean isOnlyLastLineCut = damagedCount == 1 && !text.substring(text.lastIndexOf('\n') + 1).isBlank();
+            if (isOnlyLastLineCut) {
+                return "the last line of the save file was cut off, so I left it out and kept the damaged file at "
+                        + corruptPath.toAbsolutePath();
+            }
+            return "I could not read " + damagedCount + " lines of the save file, so I left them out and "
+                    + "kept the damaged file at " + corruptPath.toAbsolutePath();
+        } finally {
+            unlockDataFile(lock);
+        }
+    }
+
+    /**
+     * Keeps a copy of a damaged data file, named after the time, beside the data file.
+     * A copy kept earlier is never overwritten, as it may hold tasks that were left out then.
+     *
+     * @return The path of the copy.
+     */
+    private Path keepDamagedFile(byte[] content) throws IOException {
+        String name = CORRUPT_SUFFIX + LocalDateTime.now().format(CORRUPT_TIME_FORMAT);
+        Path corruptPath = getSiblingPath(name);
+        for (int i = 2; Files.exists(corruptPath); i++) {
+            corruptPath = getSiblingPath(name + "-" + i);
+        }
+        Files.write(corruptPath, content, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+        return corruptPath;
+    }
+
+    /**
+     * Checks that every line of a data file is a valid task.
+     */
+    private static boolean isReadable(Path path) throws IOException {
+        return getReadableLines(Files.readAllBytes(path), new ArrayList<>()) == 0;
+    }
+
+    /**
+     * Sorts the lines of a data file into those that are valid tasks and those that are not.
+     * Blank lines are neither. A last line without a line break is taken to be cut off, as
+     * every line is written together with its line break, so it cannot be read even if what
+     * is left of it looks like a task.
+     *
+     * @param content       The contents of the data file.
+     * @param readableLines The list to add the valid lines to, without their line breaks.
+     * @return The number of lines that cannot be read.
+     */
+    private static int getReadableLines(byte[] content, ArrayList<String> readableLines) {
+        String text = new String(content, Charset.defaultCharset());
+        int end = text.lastIndexOf('\n') + 1;
+        int damagedCount = text.substring(end).isBlank() ? 0 : 1;
+        for (String line : text.substring(0, end).split("\n")) {
+            if (line.isBlank()) {
+                continue;
+            }
+            if (isTaskLine(line)) {
+                readableLines.add(line.strip());
+            } else {
+                damagedCount++;
             }
         }
+        return damagedCount;
+    }
+
+    /**
+     * Checks whether a line is a valid task. A line with a NUL byte, as a crash can leave in
+     * place of the bytes that were not written yet, is not.
+     */
+    private static boolean isTaskLine(String line) {
+        return line.indexOf('\0') < 0 && parseTask(line.strip()) != null;
+    }
+
+    private Path getSiblingPath(String suffix) {
+        return Paths.get(filePath + suffix);
+    }
+
+    /**
+     * Appends a single task to the end of the data file, which is cheaper than saving
+     * every task and cannot overwrite tasks that other programs are appending.
+     * The lock file is held while the task is appended. If another program has written only
+     * part of a line, the task is put on a line of its own after it has had a moment to
+     * finish, rather than being joined onto the end of it.
+     *
+     * @param task The task to be appended.
+     * @return The tasks that other programs appended before this one, which the caller
+     *         has not seen yet.
+     * @throws IOException   If there is an error writing to the file.
+     * @throws DudeException If the file was rewritten by another program.
+     */
+    public synchronized ArrayList<Task> append(Task task) throws IOException, DudeException {
+        FileLock lock = lockDataFile();
+        try (FileChannel channel = FileChannel.open(filePath, StandardOpenOption.READ);
+                FileChannel appender = FileChannel.open(filePath, StandardOpenOption.WRITE,
+                        StandardOpenOption.APPEND)) {
+            waitForOpenLine(channel);
+            ArrayList<Task> appendedTasks = readAppendedTasks(channel);
+            String line = task.toFileFormat().strip();
+            String lineBreak = isLineOpen(channel) ? System.lineSeparator() : "";
+            ByteBuffer buffer = ByteBuffer.wrap((lineBreak + line + System.lineSeparator())
+                    .getBytes(Charset.defaultCharset()));
+            while (buffer.hasRemaining()) {
+                // appending, unlike writing at the length read, cannot overwrite a line that a
+                // program which does not hold the lock appends at the same moment
+                appender.write(buffer);
+            }
+            ArrayList<String> newLines = readNewLines(channel, false);
+            newLines.remove(line);
+            appendedTasks.addAll(parseTasks(newLines));
+            return appendedTasks;
+        } finally {
+            unlockDataFile(lock);
+        }
+    }
+
+    /**
+     * Gives a program that is part way through writing the last line of the file a moment to
+     * finish it, for as long as it keeps writing.
+     */
+    private void waitForOpenLine(FileChannel channel) throws IOException {
+        long deadline = System.currentTimeMillis() + OPEN_LINE_WAIT_MILLIS;
+        while (isLineOpen(channel) && System.currentTimeMillis() < deadline) {
+            try {
+                Thread.sleep(1);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    /**
+     * Checks whether the file ends part way through a line.
+     */
+    private static boolean isLineOpen(FileChannel channel) throws IOException {
+        long length = channel.size();
+        return length > 0 && readRange(channel, length - 1, length)[0] != '\n';
     }
 
     public String getAbsolutePath() {
         return filePath.toFile().getAbsolutePath();
     }
 
+    public Path getFilePath() {
+        return filePath;
+    }
+
     /**
      * Loads tasks from the data file and populates an ArrayList of Task objects.
      * The method parses each line using the pipe ("|") delimiter and reconstructs
@@ -71,39 +566,208 @@ public class Storage {
      *
      * @return An ArrayList containing the Task objects read from the file.
      * @throws FileNotFoundException If the save file does not exist at the specified path.
+     * @throws IOException           If there is an error reading the file.
      */
-    public ArrayList<Task> load() throws FileNotFoundException {
-        ArrayList<Task> loadedTasks = new ArrayList<>();
-        File f = filePath.toFile();
-        try (Scanner s = new Scanner(f)) {
-            while (s.hasNext()) {
-                String nextLine = s.nextLine();
-                String[] parts = nextLine.split("\\|", 5);
-                if (parts.length < 3) continue;
-
-                String type = parts[0].trim();
-                boolean isDone = parts[1].trim().equals("1");
-                String desc = parts[2].trim();
-
-                Task task = null;
-                switch (type) {
-                case "T":
-                    task = new Todo(desc);
-                    break;
-                case "D":
-                    task = new Deadline(desc, parts[3].trim());
-                    break;
-                case "E":
-                    task = new Event(desc, parts[3].trim(), parts[4].trim());
-                    break;
-                }
-                if (task != null) {
-                    if (isDone) task.setDone(true);
-                    loadedTasks.add(task);
+    public synchronized ArrayList<Task> load() throws IOException {
+        if (!Files.exists(filePath)) {
+            throw new FileNotFoundException(filePath.toString());
+        }
+        markReadUpTo(0, new byte[0], new byte[0], 0);
+        try (FileChannel channel = FileChannel.open(filePath, StandardOpenOption.READ)) {
+            return parseTasks(readNewLines(channel, true));
+        }
+    }
+
+    /**
+     * Reads the tasks that other programs have appended to the data file since it was
+     * last loaded, saved or read by this method. Only the region after the last read
+     * offset is parsed, and a trailing line without a line break is left for the next call.
+     *
+     * @return The appended tasks, which is empty if the file has not grown.
+     * @throws IOException   If there is an error reading the file.
+     * @throws DudeException If the file was rewritten rather than appended to. A copy of
+     *                       the rewritten file is kept so that its tasks are not lost.
+     */
+    public synchronized ArrayList<Task> readAppendedTasks() throws IOException, DudeException {
+        try (FileChannel channel = FileChannel.open(filePath, StandardOpenOption.READ)) {
+            return readAppendedTasks(channel);
+        }
+    }
+
+    /**
+     * Reads the appended tasks through the given channel, which may be the one that a save
+     * or append is about to write through.
+     */
+    private ArrayList<Task> readAppendedTasks(FileChannel channel) throws IOException, DudeException {
+        if (!isOnlyAppended(channel)) {
+            Path conflictPath = getSiblingPath(CONFLICT_SUFFIX);
+            byte[] content = readRange(channel, 0, channel.size());
+            Files.write(conflictPath, content);
+            markReadUpTo(content.length, new byte[0], content, content.length);
+            throw new DudeException("the data file was changed by another program, "
+                    + "so I kept a copy of it at " + conflictPath.toAbsolutePath());
+        }
+        return parseTasks(readNewLines(channel, false));
+    }
+
+    /**
+     * Checks whether the file has been rewritten, or has had lines appended, since it was
+     * last read. A last line without a line break does not count, as it is not read until
+     * it is complete.
+     */
+    private boolean hasUnreadChanges(FileChannel channel) throws IOException {
+        if (!isOnlyAppended(channel)) {
+            return true;
+        }
+        for (byte b : readRange(channel, lastReadOffset, channel.size())) {
+            if (b == '\n') {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Checks that the bytes just before the last read offset are unchanged, which is
+     * the case when the file has only been appended to since it was last read.
+     */
+    private boolean isOnlyAppended(FileChannel channel) throws IOException {
+        if (channel.size() < lastReadOffset) {
+            return false;
+        }
+        byte[] current = readRange(channel, lastReadOffset - lastReadTail.length, lastReadOffset);
+        return Arrays.equals(current, lastReadTail);
+    }
+
+    /**
+     * Reads every complete line after the last read offset and moves the offset past them.
+     *
+     * @param isLastLineIncluded Whether a trailing line without a line break is read too,
+     *                           instead of being left for when it is completed.
+     * @return The lines that were read, without their line breaks.
+     */
+    private ArrayList<String> readNewLines(FileChannel channel, boolean isLastLineIncluded) throws IOException {
+        ArrayList<String> lines = new ArrayList<>();
+        long length = channel.size();
+        if (length <= lastReadOffset) {
+            return lines;
+        }
+        byte[] appended = readRange(channel, lastReadOffset, length);
+
+        int lineStart = 0;
+        for (int i = 0; i < appended.length; i++) {
+            boolean isLastLine = isLastLineIncluded && i == appended.length - 1;
+            if (appended[i] == '\n' || isLastLine) {
+                int lineEnd = appended[i] == '\n' ? i : i + 1;
+                lines.add(new String(appended, lineStart, lineEnd - lineStart, Charset.defaultCharset()).strip());
+                lineStart = i + 1;
+            }
+        }
+        markReadUpTo(lastReadOffset + lineStart, lastReadTail, appended, lineStart);
+        return lines;
+    }
+
+    /**
+     * Reads the bytes of the file from the start offset up to, but not including, the end offset.
+     */
+    private static byte[] readRange(FileChannel channel, long start, long end) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate((int) (end - start));
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, start + buffer.position()) < 0) {
+                throw new EOFException("the data file is shorter than expected");
+            }
+        }
+        return buffer.array();
+    }
+
+    private static void writeFully(FileChannel channel, byte[] content, long position) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(content);
+        while (buffer.hasRemaining()) {
+            channel.write(buffer, position + buffer.position());
+        }
+    }
+
+    /**
+     * Moves the last read offset and remembers the bytes just before it, so that a later
+     * rewrite of the already-read part of the file can be told apart from an append.
+     *
+     * @param offset       The new last read offset.
+     * @param previousTail The remembered bytes just before the region that was read.
+     * @param read         The bytes that were read.
+     * @param readLength   The number of bytes of {@code read} that the offset moved past.
+     */
+    private void markReadUpTo(long offset, byte[] previousTail, byte[] read, int readLength) {
+        int fromRead = Math.min(readLength, TAIL_CHECK_LENGTH);
+        int fromPrevious = Math.min(previousTail.length, TAIL_CHECK_LENGTH - fromRead);
+        byte[] tail = new byte[fromPrevious + fromRead];
+        System.arraycopy(previousTail, previousTail.length - fromPrevious, tail, 0, fromPrevious);
+        System.arraycopy(read, readLength - fromRead, tail, fromPrevious, fromRead);
+        lastReadOffset = offset;
+        lastReadTail = tail;
+    }
+
+    private static ArrayList<Task> parseTasks(ArrayList<String> lines) {
+        ArrayList<Task> tasks = new ArrayList<>();
+        for (String line : lines) {
+            Task task = parseTask(line);
+            if (task != null) {
+                tasks.add(task);
+            }
+        }
+        return tasks;
+    }
+
+    /**
+     * Parses a single line of the data file into a Task.
+     *
+     * @param line A line in the pipe ("|") delimited save format, optionally ending with a
+     *             field of tags and a priority such as "#work #urgent !high".
+     * @return The task, or null if the line is not a valid task.
+     */
+    private static Task parseTask(String line) {
+        String[] parts = line.split("\\|");
+        if (parts.length < 3) {
+            return null;
+        }
+
+        String type = parts[0].trim();
+        boolean isDone = parts[1].trim().equals("1");
+        String desc = parts[2].trim();
+
+        Task task = null;
+        switch (type) {
+        case "T":
+            task = new Todo(desc);
+            break;
+        case "D":
+            if (parts.length >= 4) {
+                task = new Deadline(desc, parts[3].trim());
+            }
+            break;
+        case "E":
+            if (parts.length >= 5) {
+                task = new Event(desc, parts[3].trim(), parts[4].trim());
+            }
+            break;
+        default:
+            break;
+        }
+        if (task == null) {
+            return null;
+        }
+        if (isDone) {
+            task.setDone(true);
+        }
+        int labelsField = type.equals("T") ? 3 : type.equals("D") ? 4 : 5;
+        if (parts.length > labelsField) {
+            for (String tag : Parser.getTags(parts[labelsField])) {
+                if (!Parser.isReservedTag(tag)) {
+                    task.addTag(tag);
                 }
             }
+            task.setPriority(Parser.getPriority(parts[labelsField]));
         }
-        return loadedTasks;
+        return task;
     }
 
     /**
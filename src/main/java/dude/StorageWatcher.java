@@ -0,0 +1,81 @@
+package dude;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+
+/**
+ * Watches the data file for changes made by other programs.
+ * The watcher runs on a background daemon thread and calls back whenever the
+ * file is created or modified, so the caller can pick up the appended tasks.
+ */
+public class StorageWatcher implements Runnable {
+    private final Path file;
+    private final Runnable onChange;
+    private final WatchService watchService;
+
+    /**
+     * Initializes a new StorageWatcher on the given file.
+     *
+     * @param file     The data file to watch.
+     * @param onChange The action to run each time the file changes.
+     * @throws IOException If the directory of the file cannot be watched.
+     */
+    public StorageWatcher(Path file, Runnable onChange) throws IOException {
+        this.file = file.toAbsolutePath();
+        this.onChange = onChange;
+        this.watchService = FileSystems.getDefault().newWatchService();
+        this.file.getParent().register(watchService,
+                StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+    }
+
+    /**
+     * Starts watching the file on a background daemon thread.
+     */
+    public void start() {
+        Thread thread = new Thread(this, "dude-storage-watcher");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Stops watching the file.
+     */
+    public void stop() throws IOException {
+        watchService.close();
+    }
+
+    /**
+     * Waits for changes to the directory of the file, and runs the callback once for
+     * each batch of events that touches the file. A burst of appends therefore results
+     * in a few callbacks rather than one per write.
+     */
+    @Override
+    public void run() {
+        try {
+            while (true) {
+                WatchKey key = watchService.take();
+                boolean isFileChanged = false;
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    boolean isOverflow = event.kind() == StandardWatchEventKinds.OVERFLOW;
+                    if (isOverflow || file.getFileName().equals(event.context())) {
+                        isFileChanged = true;
+                    }
+                }
+                if (isFileChanged) {
+                    onChange.run();
+                }
+                if (!key.reset()) {
+                    return;
+                }
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // the watcher was stopped
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package dude;
+
+import java.util.function.Function;
+
+/**
+ * Represents a boolean expression over tags, such as {@code #work & !#done} or {@code #a | #b}.
+ * {@code &} binds tighter than {@code |}, {@code !} negates, and parentheses group.
+ * The reserved tag {@code #done} stands for the tasks that are marked as done.
+ */
+public class TagQuery {
+    public static final String DONE_TAG = "done";
+
+    private final Node root;
+
+    private TagQuery(Node root) {
+        this.root = root;
+    }
+
+    /**
+     * Evaluates the expression as operations on bitmaps of task ids.
+     *
+     * @param tagIndex Returns the bitmap of the tasks with the given tag, including {@code done}.
+     * @param allTasks The bitmap of every task, which negations are taken against.
+     * @return The bitmap of the tasks matching the expression.
+     */
+    public RoaringBitmap evaluate(Function<String, RoaringBitmap> tagIndex, RoaringBitmap allTasks) {
+        return root.evaluate(tagIndex, allTasks);
+    }
+
+    /**
+     * Parses a tag expression.
+     *
+     * @param expression The expression, such as {@code #work & !#done}.
+     * @return The parsed expression.
+     * @throws DudeException If the expression is not well formed.
+     */
+    public static TagQuery parse(String expression) throws DudeException {
+        Tokens tokens = new Tokens(expression);
+        Node root = parseOr(tokens);
+        if (tokens.hasNext()) {
+            throw new DudeException("I don't understand the tag query after \"" + tokens.peekRest() + "\".");
+        }
+        return new TagQuery(root);
+    }
+
+    private static Node parseOr(Tokens tokens) throws DudeException {
+        Node left = parseAnd(tokens);
+        while (tokens.consume('|')) {
+            Node l = left;
+            Node r = parseAnd(tokens);
+            left = (index, all) -> l.evaluate(index, all).or(r.evaluate(index, all));
+        }
+        return left;
+    }
+
+    private static Node parseAnd(Tokens tokens) throws DudeException {
+        Node left = parseFactor(tokens);
+        while (tokens.consume('&')) {
+            Node l = left;
+            Node r = parseFactor(tokens);
+            left = (index, all) -> l.evaluate(index, all).and(r.evaluate(index, all));
+        }
+        return left;
+    }
+
+    private static Node parseFactor(Tokens tokens) throws DudeException {
+        if (tokens.consume('!')) {
+            Node negated = parseFactor(tokens);
+            return (index, all) -> all.andNot(negated.evaluate(index, all));
+        }
+        if (tokens.consume('(')) {
+            Node grouped = parseOr(tokens);
+            if (!tokens.consume(')')) {
+                throw new DudeException("your tag query is missing a ).");
+            }
+            return grouped;
+        }
+        String tag = tokens.readTag();
+        return (index, all) -> index.apply(tag);
+    }
+
+    /**
+     * Represents a part of the expression.
+     */
+    private interface Node {
+        RoaringBitmap evaluate(Function<String, RoaringBitmap> tagIndex, RoaringBitmap allTasks);
+    }
+
+    /**
+     * Steps through the characters of the expression, skipping whitespace.
+     */
+    private static class Tokens {
+        private final String text;
+        private int position;
+
+        Tokens(String text) {
+            this.text = text;
+        }
+
+        boolean hasNext() {
+            skipWhitespace();
+            return position < text.length();
+        }
+
+        String peekRest() {
+            return text.substring(position);
+        }
+
+        boolean consume(char expected) {
+            if (hasNext() && text.charAt(position) == expected) {
+                position++;
+                return true;
+            }
+            return false;
+        }
+
+        String readTag() throws DudeException {
+            if (!consume('#')) {
+                throw new DudeException("tags in a query must start with #.");
+            }
+            int start = position;
+            while (position < text.length() && Parser.isTagCharacter(text.charAt(position))) {
+                position++;
+            }
+            if (start == position) {
+                throw new DudeException("a # in your tag query has no tag name.");
+            }
+            return text.substring(start, position).toLowerCase();
+        }
+
+        private void skipWhitespace() {
+            while (position < text.length() && Character.isWhitespace(text.charAt(position))) {
+                position++;
+            }
+        }
+    }
+}
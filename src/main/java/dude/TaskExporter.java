@@ -0,0 +1,225 @@
+package dude;
+
+import dude.task.Deadline;
+import dude.task.Event;
+import dude.task.Priority;
+import dude.task.Task;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+/**
+ * Writes tasks to CSV, JSON Lines or iCalendar files.
+ * Tasks are streamed to the file one at a time, so no copy of the whole file is built in memory.
+ */
+public class TaskExporter {
+    static final String CSV_HEADER = "type,done,description,by,from,to,tags,priority";
+    static final DateTimeFormatter ICALENDAR_DATE_TIME = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss");
+
+    /**
+     * Writes the tasks to the given file, in the format given by its extension.
+     *
+     * @param path  The file to write to. It is replaced if it already exists.
+     * @param tasks The tasks to be exported.
+     * @throws IOException   If there is an error writing to the file.
+     * @throws DudeException If the file extension is not a supported format.
+     */
+    public void export(Path path, List<Task> tasks) throws IOException, DudeException {
+        ExchangeFormat format = ExchangeFormat.fromPath(path);
+        try (BufferedWriter writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8)) {
+            switch (format) {
+            case CSV:
+                writeCsv(writer, tasks);
+                break;
+            case JSON_LINES:
+                writeJsonLines(writer, tasks);
+                break;
+            default:
+                writeICalendar(writer, tasks);
+                break;
+            }
+        }
+    }
+
+    private void writeCsv(BufferedWriter writer, List<Task> tasks) throws IOException {
+        writer.write(CSV_HEADER);
+        writer.newLine();
+        for (Task task : tasks) {
+            String[] fields = {task.getTypeSymbol(), task.isDone() ? "1" : "0", task.getTaskName(),
+                getBy(task), getFrom(task), getTo(task), task.getTagsText(), getPriorityName(task)};
+            for (int i = 0; i < fields.length; i++) {
+                if (i > 0) {
+                    writer.write(',');
+                }
+                writer.write(toCsvField(fields[i]));
+            }
+            writer.newLine();
+        }
+    }
+
+    private void writeJsonLines(BufferedWriter writer, List<Task> tasks) throws IOException {
+        for (Task task : tasks) {
+            StringBuilder json = new StringBuilder();
+            json.append("{\"type\":").append(toJsonString(task.getTypeSymbol()))
+                    .append(",\"done\":").append(task.isDone())
+                    .append(",\"description\":").append(toJsonString(task.getTaskName()));
+            if (task instanceof Deadline) {
+                json.append(",\"by\":").append(toJsonString(getBy(task)));
+            } else if (task instanceof Event) {
+                json.append(",\"from\":").append(toJsonString(getFrom(task)))
+                        .append(",\"to\":").append(toJsonString(getTo(task)));
+            }
+            if (!task.getTags().isEmpty()) {
+                json.append(",\"tags\":").append(toJsonString(task.getTagsText()));
+            }
+            if (task.getPriority() != Priority.NONE) {
+                json.append(",\"priority\":").append(toJsonString(getPriorityName(task)));
+            }
+            json.append('}');
+            writer.write(json.toString());
+            writer.newLine();
+        }
+    }
+
+    /**
+     * Writes todos and deadlines as VTODO components and events as VEVENT components.
+     * Dates that Dude recognises become DUE, DTSTART and DTEND; any other date text is
+     * kept in X-DUDE-BY, X-DUDE-FROM and X-DUDE-TO so that it survives a round trip.
+     * Priorities become PRIORITY, which runs from 1 for the highest to 9 for the lowest.
+     */
+    private void writeICalendar(BufferedWriter writer, List<Task> tasks) throws IOException {
+        String timestamp = LocalDateTime.now(ZoneOffset.UTC).format(ICALENDAR_DATE_TIME) + "Z";
+        writeICalendarLine(writer, "BEGIN:VCALENDAR");
+        writeICalendarLine(writer, "VERSION:2.0");
+        writeICalendarLine(writer, "PRODID:-//Dude//Dude Task List//EN");
+        int uid = 0;
+        for (Task task : tasks) {
+            String component = task instanceof Event ? "VEVENT" : "VTODO";
+            writeICalendarLine(writer, "BEGIN:" + component);
+            writeICalendarLine(writer, "UID:dude-" + (++uid) + "-" + timestamp);
+            writeICalendarLine(writer, "DTSTAMP:" + timestamp);
+            writeICalendarLine(writer, "SUMMARY:" + toICalendarText(task.getTaskName()));
+            if (task instanceof Deadline) {
+                writeICalendarDate(writer, "DUE", "X-DUDE-BY", getBy(task));
+            } else if (task instanceof Event) {
+                writeICalendarDate(writer, "DTSTART", "X-DUDE-FROM", getFrom(task));
+                writeICalendarDate(writer, "DTEND", "X-DUDE-TO", getTo(task));
+            }
+            if (!task.getTags().isEmpty()) {
+                writeICalendarLine(writer, "CATEGORIES:" + String.join(",", task.getTags()));
+            }
+            if (task.getPriority() != Priority.NONE) {
+                writeICalendarLine(writer, "PRIORITY:" + toICalendarPriority(task.getPriority()));
+            }
+            if (task.isDone()) {
+                // VEVENT has no completed status, so events carry Dude's own property
+                writeICalendarLine(writer, task instanceof Event ? "X-DUDE-DONE:1" : "STATUS:COMPLETED");
+            }
+            writeICalendarLine(writer, "END:" + component);
+        }
+        writeICalendarLine(writer, "END:VCALENDAR");
+    }
+
+    private void writeICalendarDate(BufferedWriter writer, String property, String textProperty, String date)
+            throws IOException {
+        LocalDateTime dateTime = Parser.parseDateTime(date);
+        if (dateTime != null) {
+            writeICalendarLine(writer, property + ":" + dateTime.format(ICALENDAR_DATE_TIME));
+        } else {
+            writeICalendarLine(writer, textProperty + ":" + toICalendarText(date));
+        }
+    }
+
+    /**
+     * Writes a content line, folding it onto continuation lines every 74 characters
+     * as iCalendar requires.
+     */
+    private void writeICalendarLine(BufferedWriter writer, String line) throws IOException {
+        int start = 0;
+        while (line.length() - start > 74) {
+            writer.write(line, start, 74);
+            writer.write("\r\n ");
+            start += 74;
+        }
+        writer.write(line.substring(start));
+        writer.write("\r\n");
+    }
+
+    private static String getBy(Task task) {
+        return task instanceof Deadline ? ((Deadline) task).getBy() : "";
+    }
+
+    private static String getFrom(Task task) {
+        return task instanceof Event ? ((Event) task).getFrom() : "";
+    }
+
+    private static String getTo(Task task) {
+        return task instanceof Event ? ((Event) task).getTo() : "";
+    }
+
+    private static String getPriorityName(Task task) {
+        return task.getPriority() == Priority.NONE ? "" : task.getPriority().getName();
+    }
+
+    private static int toICalendarPriority(Priority priority) {
+        switch (priority) {
+        case HIGH:
+            return 1;
+        case MEDIUM:
+            return 5;
+        case LOW:
+            return 9;
+        default:
+            return 0;
+        }
+    }
+
+    private static String toCsvField(String value) {
+        if (value.contains(",") || value.contains("\"") || value.contains("\n") || value.contains("\r")) {
+            return "\"" + value.replace("\"", "\"\"") + "\"";
+        }
+        return value;
+    }
+
+    private static String toJsonString(String value) {
+        StringBuilder json = new StringBuilder("\"");
+        for (char c : value.toCharArray()) {
+            switch (c) {
+            case '"':
+                json.append("\\\"");
+                break;
+            case '\\':
+                json.append("\\\\");
+                break;
+            case '\n':
+                json.append("\\n");
+                break;
+            case '\r':
+                json.append("\\r");
+                break;
+            case '\t':
+                json.append("\\t");
+                break;
+            default:
+                if (c < 0x20) {
+                    json.append(String.format("\\u%04x", (int) c));
+                } else {
+                    json.append(c);
+                }
+                break;
+            }
+        }
+        return json.append('"').toString();
+    }
+
+    private static String toICalendarText(String value) {
+        return value.replace("\\", "\\\\").replace(";", "\\;").replace(",", "\\,").replace("\n", "\\n");
+    }
+}
@@ -0,0 +1,566 @@
+package dude;
+
+import dude.task.Deadline;
+import dude.task.Event;
+import dude.task.Priority;
+import dude.task.Task;
+import dude.task.Todo;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
+
+/**
+ * Reads tasks from CSV, JSON Lines or iCalendar files.
+ * Files are streamed in fixed-size batches, so memory use does not grow with the size
+ * of the file. Each record that cannot be read is reported on its own, and the rest of
+ * the file is still imported.
+ */
+public class TaskImporter {
+    private static final int BATCH_SIZE = 8192;
+    private static final int MAX_CSV_RECORD_LINES = 100;
+    private static final DateTimeFormatter ICALENDAR_DATE = DateTimeFormatter.ofPattern("yyyyMMdd");
+    private static final DateTimeFormatter DUDE_DATE_TIME = DateTimeFormatter.ofPattern("yyyy-MM-dd HHmm");
+    private static final DateTimeFormatter DUDE_DATE = DateTimeFormatter.ofPattern("yyyy-MM-dd");
+
+    /**
+     * Represents the outcome of an import: how many tasks were read, and why the others were not.
+     */
+    public static class ImportResult {
+        private static final int MAX_KEPT_ERRORS = 20;
+
+        private int importedCount;
+        private int errorCount;
+        private final ArrayList<String> errors = new ArrayList<>();
+
+        private void addError(long lineNumber, String message) {
+            errorCount++;
+            if (errors.size() < MAX_KEPT_ERRORS) {
+                errors.add("line " + lineNumber + ": " + message);
+            }
+        }
+
+        public int getImportedCount() {
+            return importedCount;
+        }
+
+        public int getErrorCount() {
+            return errorCount;
+        }
+
+        /**
+         * Returns the first few errors, which is all of them unless there were many.
+         */
+        public ArrayList<String> getErrors() {
+            return errors;
+        }
+    }
+
+    /**
+     * Parses a single line-based record into a task.
+     */
+    private interface RecordParser {
+        Task parse(String record) throws DudeException;
+    }
+
+    /**
+     * Reads the tasks in the given file, in the format given by its extension, and passes
+     * each one to the consumer in the order they appear in the file.
+     *
+     * @param path     The file to read from.
+     * @param consumer The action to run on each task that was read.
+     * @return The number of tasks read and the records that could not be read.
+     * @throws IOException   If there is an error reading the file.
+     * @throws DudeException If the file extension is not a supported format.
+     */
+    public ImportResult importTasks(Path path, Consumer<Task> consumer) throws IOException, DudeException {
+        ExchangeFormat format = ExchangeFormat.fromPath(path);
+        ImportResult result = new ImportResult();
+        try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            switch (format) {
+            case CSV:
+                readLineRecords(reader, TaskImporter::parseCsvRecord, true, consumer, result);
+                break;
+            case JSON_LINES:
+                readLineRecords(reader, TaskImporter::parseJsonRecord, false, consumer, result);
+                break;
+            default:
+                readICalendar(reader, consumer, result);
+                break;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Reads a format with one record per line. Lines are read in batches which are
+     * parsed in parallel, and the tasks are then handed over in file order.
+     *
+     * @param isQuotedAcrossLines Whether a quoted field can hold line breaks, as in CSV, so that
+     *                            a record goes on over the next lines until its quotes are closed.
+     */
+    private void readLineRecords(BufferedReader reader, RecordParser parser, boolean isQuotedAcrossLines,
+            Consumer<Task> consumer, ImportResult result) throws IOException {
+        long[] lineNumber = {0};
+        String[] batch = new String[BATCH_SIZE];
+        long[] lineNumbers = new long[BATCH_SIZE];
+        Object[] parsed = new Object[BATCH_SIZE];
+        while (true) {
+            int size = 0;
+            String line;
+            while (size < BATCH_SIZE && (line = reader.readLine()) != null) {
+                lineNumber[0]++;
+                lineNumbers[size] = lineNumber[0];
+                batch[size++] = isQuotedAcrossLines ? readRestOfCsvRecord(reader, line, lineNumber) : line;
+            }
+            if (size == 0) {
+                return;
+            }
+
+            IntStream.range(0, size).parallel().forEach(i -> {
+                try {
+                    parsed[i] = isSkippedLine(batch[i]) ? null : parser.parse(batch[i]);
+                } catch (DudeException e) {
+                    parsed[i] = e.getMessage();
+                }
+            });
+            for (int i = 0; i < size; i++) {
+                if (parsed[i] instanceof Task) {
+                    consumer.accept((Task) parsed[i]);
+                    result.importedCount++;
+                } else if (parsed[i] != null) {
+                    result.addError(lineNumbers[i], (String) parsed[i]);
+                }
+            }
+        }
+    }
+
+    /**
+     * Adds the lines after the first line of a CSV record while it has a quoted field left open.
+     * A quote that is never closed would take in the rest of the file, so a record is ended
+     * after a limited number of lines, and is then reported as not closed.
+     *
+     * @param firstLine  The first line of the record.
+     * @param lineNumber The number of the last line read, which is moved on past the added lines.
+     * @return The record, with its lines joined by line breaks.
+     */
+    private static String readRestOfCsvRecord(BufferedReader reader, String firstLine, long[] lineNumber)
+            throws IOException {
+        boolean isQuoted = isQuoteLeftOpen(firstLine, false);
+        if (!isQuoted) {
+            return firstLine;
+        }
+        StringBuilder record = new StringBuilder(firstLine);
+        String line;
+        for (int lines = 1; isQuoted && lines < MAX_CSV_RECORD_LINES && (line = reader.readLine()) != null; lines++) {
+            lineNumber[0]++;
+            record.append('\n').append(line);
+            isQuoted = isQuoteLeftOpen(line, true);
+        }
+        return record.toString();
+    }
+
+    /**
+     * Checks if a quoted field is still open at the end of the line. A doubled quote inside
+     * a quoted field stands for a quote, and opens and closes it again, so counting the
+     * quotes is enough.
+     *
+     * @param isQuoted Whether a quoted field was open at the start of the line.
+     */
+    private static boolean isQuoteLeftOpen(String line, boolean isQuoted) {
+        for (int i = 0; i < line.length(); i++) {
+            if (line.charAt(i) == '"') {
+                isQuoted = !isQuoted;
+            }
+        }
+        return isQuoted;
+    }
+
+    private static boolean isSkippedLine(String line) {
+        return line.isBlank() || line.trim().toLowerCase().startsWith("type,done,description");
+    }
+
+    private static Task parseCsvRecord(String record) throws DudeException {
+        ArrayList<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean isQuoted = false;
+        for (int i = 0; i < record.length(); i++) {
+            char c = record.charAt(i);
+            if (isQuoted && c == '"' && i + 1 < record.length() && record.charAt(i + 1) == '"') {
+                field.append('"');
+                i++;
+            } else if (c == '"') {
+                isQuoted = !isQuoted;
+            } else if (c == ',' && !isQuoted) {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        if (isQuoted) {
+            throw new DudeException("a quoted field is not closed");
+        }
+        fields.add(field.toString());
+        if (fields.size() < 3) {
+            throw new DudeException("expected type, done and description columns");
+        }
+        // files exported before priorities were added have no priority column
+        while (fields.size() < 8) {
+            fields.add("");
+        }
+        return createTask(fields.get(0), fields.get(1), fields.get(2), fields.get(3), fields.get(4), fields.get(5),
+                fields.get(6), fields.get(7));
+    }
+
+    private static Task parseJsonRecord(String record) throws DudeException {
+        Map<String, String> fields = parseJsonObject(record.trim());
+        return createTask(fields.get("type"), fields.get("done"), fields.get("description"),
+                fields.get("by"), fields.get("from"), fields.get("to"), fields.get("tags"), fields.get("priority"));
+    }
+
+    /**
+     * Parses a JSON object whose values are all strings, booleans, numbers or null.
+     * Values are returned as their text, with null values left out.
+     */
+    private static Map<String, String> parseJsonObject(String json) throws DudeException {
+        Map<String, String> fields = new HashMap<>();
+        int[] position = {0};
+        expect(json, position, '{');
+        skipWhitespace(json, position);
+        if (peek(json, position) == '}') {
+            return fields;
+        }
+        while (true) {
+            skipWhitespace(json, position);
+            String key = readJsonString(json, position);
+            skipWhitespace(json, position);
+            expect(json, position, ':');
+            skipWhitespace(json, position);
+            String value;
+            if (peek(json, position) == '"') {
+                value = readJsonString(json, position);
+            } else {
+                int start = position[0];
+                while (position[0] < json.length() && ",} \t".indexOf(json.charAt(position[0])) < 0) {
+                    position[0]++;
+                }
+                value = json.substring(start, position[0]);
+                if (value.isEmpty() || value.startsWith("{") || value.startsWith("[")) {
+                    throw new DudeException("the value of " + key + " must be a string, number or boolean");
+                }
+            }
+            if (!value.equals("null")) {
+                fields.put(key, value);
+            }
+            skipWhitespace(json, position);
+            if (peek(json, position) == '}') {
+                return fields;
+            }
+            expect(json, position, ',');
+        }
+    }
+
+    private static String readJsonString(String json, int[] position) throws DudeException {
+        expect(json, position, '"');
+        StringBuilder value = new StringBuilder();
+        while (position[0] < json.length()) {
+            char c = json.charAt(position[0]++);
+            if (c == '"') {
+                return value.toString();
+            }
+            if (c != '\\') {
+                value.append(c);
+                continue;
+            }
+            if (position[0] >= json.length()) {
+                break;
+            }
+            char escaped = json.charAt(position[0]++);
+            switch (escaped) {
+            case 'n':
+                value.append('\n');
+                break;
+            case 'r':
+                value.append('\r');
+                break;
+            case 't':
+                value.append('\t');
+                break;
+            case 'b':
+                value.append('\b');
+                break;
+            case 'f':
+                value.append('\f');
+                break;
+            case 'u':
+                if (position[0] + 4 > json.length()) {
+                    throw new DudeException("a \\u escape is cut short");
+                }
+                try {
+                    value.append((char) Integer.parseInt(json.substring(position[0], position[0] + 4), 16));
+                } catch (NumberFormatException e) {
+                    throw new DudeException("a \\u escape is not a hex number");
+                }
+                position[0] += 4;
+                break;
+            default:
+                value.append(escaped);
+                break;
+            }
+        }
+        throw new DudeException("a string is not closed");
+    }
+
+    private static char peek(String json, int[] position) throws DudeException {
+        if (position[0] >= json.length()) {
+            throw new DudeException("the JSON object ends too early");
+        }
+        return json.charAt(position[0]);
+    }
+
+    private static void expect(String json, int[] position, char expected) throws DudeException {
+        if (peek(json, position) != expected) {
+            throw new DudeException("expected '" + expected + "' at column " + (position[0] + 1));
+        }
+        position[0]++;
+    }
+
+    private static void skipWhitespace(String json, int[] position) {
+        while (position[0] < json.length() && Character.isWhitespace(json.charAt(position[0]))) {
+            position[0]++;
+        }
+    }
+
+    /**
+     * Reads the VTODO and VEVENT components of an iCalendar file. Components span several
+     * lines, so they are read one after another rather than in parallel.
+     */
+    private void readICalendar(BufferedReader reader, Consumer<Task> consumer, ImportResult result)
+            throws IOException {
+        long lineNumber = 0;
+        long componentLineNumber = 0;
+        String component = null;
+        Map<String, String> properties = new HashMap<>();
+        String pending = null;
+        long pendingLineNumber = 0;
+        String line;
+        do {
+            line = reader.readLine();
+            lineNumber++;
+            if (line != null && pending != null && (line.startsWith(" ") || line.startsWith("\t"))) {
+                pending += line.substring(1);
+                continue;
+            }
+            if (pending != null) {
+                String name = pending.split("[:;]", 2)[0].toUpperCase();
+                String value = pending.contains(":") ? pending.substring(pending.indexOf(':') + 1) : "";
+                if (name.equals("BEGIN") && (value.equals("VTODO") || value.equals("VEVENT"))) {
+                    component = value;
+                    componentLineNumber = pendingLineNumber;
+                    properties.clear();
+                } else if (name.equals("END") && value.equals(component)) {
+                    try {
+                        consumer.accept(createICalendarTask(component, properties));
+                        result.importedCount++;
+                    } catch (DudeException e) {
+                        result.addError(componentLineNumber, e.getMessage());
+                    }
+                    component = null;
+                } else if (component != null) {
+                    properties.put(name, value);
+                }
+            }
+            pending = line;
+            pendingLineNumber = lineNumber;
+        } while (line != null);
+    }
+
+    private static Task createICalendarTask(String component, Map<String, String> properties)
+            throws DudeException {
+        String description = fromICalendarText(properties.getOrDefault("SUMMARY", ""));
+        boolean isDone = "COMPLETED".equalsIgnoreCase(properties.get("STATUS"))
+                || "1".equals(properties.get("X-DUDE-DONE"));
+        String done = isDone ? "1" : "0";
+        String tags = null;
+        if (properties.containsKey("CATEGORIES")) {
+            tags = fromICalendarText(properties.get("CATEGORIES")).replace(',', ' ');
+        }
+        String priority = getICalendarPriority(properties.get("PRIORITY"));
+        if (component.equals("VEVENT")) {
+            String from = getICalendarDate(properties, "DTSTART", "X-DUDE-FROM");
+            String to = getICalendarDate(properties, "DTEND", "X-DUDE-TO");
+            return createTask("E", done, description, null, from, to, tags, priority);
+        }
+        String by = getICalendarDate(properties, "DUE", "X-DUDE-BY");
+        return createTask(by == null ? "T" : "D", done, description, by, null, null, tags, priority);
+    }
+
+    /**
+     * Converts an iCalendar priority, which runs from 1 for the highest to 9 for the lowest
+     * with 0 for none, into the name of the nearest Dude priority.
+     */
+    private static String getICalendarPriority(String value) throws DudeException {
+        if (value == null) {
+            return null;
+        }
+        int level;
+        try {
+            level = Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            throw new DudeException("PRIORITY must be a number from 0 to 9, not " + value);
+        }
+        if (level < 0 || level > 9) {
+            throw new DudeException("PRIORITY must be a number from 0 to 9, not " + value);
+        }
+        if (level == 0) {
+            return Priority.NONE.getName();
+        }
+        return level < 5 ? Priority.HIGH.getName() : level == 5 ? Priority.MEDIUM.getName() : Priority.LOW.getName();
+    }
+
+    /**
+     * Converts an iCalendar date or date-time into the yyyy-MM-dd format that Dude
+     * recognises, falling back on the date text Dude exported when there is none.
+     */
+    private static String getICalendarDate(Map<String, String> properties, String property,
+            String textProperty) throws DudeException {
+        String value = properties.get(property);
+        if (value == null) {
+            String text = properties.get(textProperty);
+            return text == null ? null : fromICalendarText(text);
+        }
+        try {
+            if (value.length() == 8) {
+                return LocalDate.parse(value, ICALENDAR_DATE).format(DUDE_DATE);
+            }
+            if (value.endsWith("Z")) {
+                LocalDateTime utc = LocalDateTime.parse(value.substring(0, value.length() - 1),
+                        TaskExporter.ICALENDAR_DATE_TIME);
+                return utc.atOffset(ZoneOffset.UTC).atZoneSameInstant(ZoneId.systemDefault())
+                        .format(DUDE_DATE_TIME);
+            }
+            return LocalDateTime.parse(value, TaskExporter.ICALENDAR_DATE_TIME).format(DUDE_DATE_TIME);
+        } catch (DateTimeParseException e) {
+            throw new DudeException(property + " is not a valid date: " + value);
+        }
+    }
+
+    private static String fromICalendarText(String value) {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '\\' && i + 1 < value.length()) {
+                char escaped = value.charAt(++i);
+                text.append(escaped == 'n' || escaped == 'N' ? '\n' : escaped);
+            } else {
+                text.append(c);
+            }
+        }
+        return text.toString();
+    }
+
+    /**
+     * Builds a task from its exported fields, checking that the fields its type needs are present.
+     */
+    private static Task createTask(String type, String done, String description, String by, String from,
+            String to, String tags, String priority) throws DudeException {
+        if (description == null || description.isBlank()) {
+            throw new DudeException("the description cannot be empty");
+        }
+        for (String field : new String[] {description, by, from, to}) {
+            if (field != null && field.contains("|")) {
+                throw new DudeException("fields cannot contain |");
+            }
+        }
+        description = toOneLine(description);
+        by = toOneLine(by);
+        from = toOneLine(from);
+        to = toOneLine(to);
+        Task task;
+        switch (type == null ? "" : type.trim().toUpperCase()) {
+        case "T":
+        case "TODO":
+            task = new Todo(description.trim());
+            break;
+        case "D":
+        case "DEADLINE":
+            if (by == null || by.isBlank()) {
+                throw new DudeException("a deadline must have a by date");
+            }
+            task = new Deadline(description.trim(), by.trim());
+            break;
+        case "E":
+        case "EVENT":
+            if (from == null || from.isBlank() || to == null || to.isBlank()) {
+                throw new DudeException("an event must have a from and a to date");
+            }
+            task = new Event(description.trim(), from.trim(), to.trim());
+            break;
+        default:
+            throw new DudeException("the type must be T, D or E, not " + type);
+        }
+        task.setDone(isDone(done));
+        if (tags != null) {
+            for (String tag : tags.trim().split("\\s+")) {
+                String name = tag.replaceFirst("^#", "");
+                if (name.isEmpty()) {
+                    continue;
+                }
+                if (!Parser.isTagName(name)) {
+                    throw new DudeException("the tag " + tag + " can only have letters, digits, _ and -, "
+                            + "and not only digits");
+                }
+                if (Parser.isReservedTag(name)) {
+                    throw new DudeException("the tag " + tag + " stands for the tasks marked as done");
+                }
+                task.addTag(name);
+            }
+        }
+        if (priority != null && !priority.isBlank()) {
+            Priority level = Priority.fromName(priority.trim().replaceFirst("^!", ""));
+            if (level == null) {
+                throw new DudeException("the priority must be high, medium, low or none, not " + priority);
+            }
+            task.setPriority(level);
+        }
+        return task;
+    }
+
+    /**
+     * Joins the lines of a field with spaces, as each task is kept on one line of the save file.
+     */
+    private static String toOneLine(String field) {
+        return field == null ? null : field.replaceAll("\\s*(\r\n|\r|\n)\\s*", " ");
+    }
+
+    private static boolean isDone(String done) throws DudeException {
+        switch (done == null ? "" : done.trim().toLowerCase()) {
+        case "1":
+        case "true":
+        case "yes":
+        case "x":
+            return true;
+        case "":
+        case "0":
+        case "false":
+        case "no":
+            return false;
+        default:
+            throw new DudeException("the done status must be 1 or 0, not " + done);
+        }
+    }
+}
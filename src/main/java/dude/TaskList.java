@@ -1,27 +1,96 @@
 package dude;
 
+import dude.task.Priority;
 import dude.task.Task;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
  * Represents the in-memory list of tasks and provides operations to manage them.
- * This class acts as a wrapper around an ArrayList of Tasks, offering high-level
+ * This class acts as a wrapper around a list of Tasks, offering high-level
  * methods to add, delete, find, and retrieve tasks, while ensuring index safety
  * through internal validation.
+ * The tasks are kept in a {@link PersistentVector}, and every change publishes a new
+ * version of it. Reads take the current version without locking, so listing and finding
+ * tasks never wait for, or see half of, a change made by another thread. Tasks are not
+ * changed in place: marking a task or changing its priority puts a changed copy in its
+ * place, so a version, once read, stays as it was. Changes, and the
+ * filtered views that read the secondary indexes, are made one at a time.
+ * Secondary indexes on type, completion status, tags, description and date are kept up
+ * to date on every change so that filtered and sorted views do not need to scan or sort
+ * the whole list. Each task is given an id, in the order tasks are added, and the type,
+ * status and tag indexes are compressed bitmaps of these ids, so that filters combine
+ * as bitmap operations and deleting a task does not renumber them.
+ * Listeners can be registered to be told about each change as it is made, and running
+ * counts of the tasks are kept for the summary.
+ * The pending tasks are also kept in heaps ordered by urgency, which is the time a task
+ * is due brought forward by its priority, so the most urgent tasks can be read off them
+ * without sorting the list. Tasks without a recognised date are kept in a heap of their
+ * own, as the time they are ranked as due moves along with the current time.
  */
 public class TaskList {
-    private final ArrayList<Task> taskList;
+    private static final int UNDATED_HORIZON_DAYS = 14;
+
+    private volatile PersistentVector<Task> taskList;
+    private final Map<Task, Integer> taskIds;
+    private final Map<Integer, Task> tasksById;
+    private int nextId;
+    private final RoaringBitmap allIndex;
+    private final RoaringBitmap doneIndex;
+    private final RoaringBitmap undatedIndex;
+    private final Map<String, RoaringBitmap> typeIndex;
+    private final Map<String, RoaringBitmap> tagIndex;
+    private final TreeMap<String, ArrayList<Task>> descriptionIndex;
+    private final TreeMap<LocalDateTime, ArrayList<Task>> dateIndex;
+    private final TreeMap<String, ArrayList<Task>> unparsedDateIndex;
+    private final List<TaskListListener> listeners;
+    private final TaskStatistics statistics;
+    private final IndexedHeap<Task> urgencyHeap;
+    private final IndexedHeap<Task> undatedUrgencyHeap;
 
     public TaskList() {
-        this.taskList = new ArrayList<>();
+        this.taskList = PersistentVector.empty();
+        this.taskIds = new HashMap<>();
+        this.tasksById = new HashMap<>();
+        this.nextId = 0;
+        this.allIndex = new RoaringBitmap();
+        this.doneIndex = new RoaringBitmap();
+        this.undatedIndex = new RoaringBitmap();
+        this.typeIndex = new HashMap<>();
+        this.tagIndex = new HashMap<>();
+        this.descriptionIndex = new TreeMap<>();
+        this.dateIndex = new TreeMap<>();
+        this.unparsedDateIndex = new TreeMap<>();
+        this.listeners = new CopyOnWriteArrayList<>();
+        this.statistics = new TaskStatistics();
+        this.urgencyHeap = new IndexedHeap<>();
+        this.undatedUrgencyHeap = new IndexedHeap<>();
+    }
+
+    /**
+     * Registers a listener to be told about every task added, deleted or changed
+     * from now on. Tasks already in the list are not replayed to it.
+     *
+     * @param listener The listener to register.
+     */
+    public void addListener(TaskListListener listener) {
+        listeners.add(listener);
     }
 
     /**
      * Helper to check if the index is within the bounds of the list.
      */
-    private void validateIndex(int index) throws DudeException {
-        if (index < 0 || index >= taskList.size()) {
+    private static void validateIndex(List<Task> tasks, int index) throws DudeException {
+        if (index < 0 || index >= tasks.size()) {
             throw new DudeException("this task number is not valid");
         }
     }
@@ -42,25 +111,361 @@ public class TaskList {
         return matchingTasks;
     }
 
-    public void addTask(Task task) {
-        taskList.add(task);
+    public synchronized void addTask(Task task) {
+        int id = nextId++;
+        taskList = taskList.append(task);
+        taskIds.put(task, id);
+        tasksById.put(id, task);
+        allIndex.add(id);
+        if (task.isDone()) {
+            doneIndex.add(id);
+        }
+        typeIndex.computeIfAbsent(task.getTypeSymbol(), k -> new RoaringBitmap()).add(id);
+        for (String tag : task.getTags()) {
+            tagIndex.computeIfAbsent(tag, k -> new RoaringBitmap()).add(id);
+        }
+        addToBucket(descriptionIndex, task.getTaskName(), task);
+        LocalDateTime date = null;
+        if (task.getDate() != null) {
+            date = Parser.parseDateTime(task.getDate());
+            if (date != null) {
+                addToBucket(dateIndex, date, task);
+            } else {
+                addToBucket(unparsedDateIndex, task.getDate(), task);
+            }
+        } else {
+            undatedIndex.add(id);
+        }
+        statistics.recordAdded(task);
+        if (!task.isDone()) {
+            addToUrgencyHeap(task, date, id);
+        }
+        for (TaskListListener listener : listeners) {
+            listener.taskAdded(task);
+        }
+    }
+
+    public synchronized Task deleteTask(int index) throws DudeException {
+        validateIndex(taskList, index);
+        Task removed = taskList.get(index);
+        taskList = taskList.without(index);
+        int id = taskIds.remove(removed);
+        tasksById.remove(id);
+        allIndex.remove(id);
+        doneIndex.remove(id);
+        undatedIndex.remove(id);
+        typeIndex.get(removed.getTypeSymbol()).remove(id);
+        for (String tag : removed.getTags()) {
+            tagIndex.get(tag).remove(id);
+        }
+        removeFromBucket(descriptionIndex, removed.getTaskName(), removed);
+        if (removed.getDate() != null) {
+            LocalDateTime date = Parser.parseDateTime(removed.getDate());
+            if (date != null) {
+                removeFromBucket(dateIndex, date, removed);
+            } else {
+                removeFromBucket(unparsedDateIndex, removed.getDate(), removed);
+            }
+        }
+        statistics.recordRemoved(removed);
+        removeFromUrgencyHeap(removed);
+        for (TaskListListener listener : listeners) {
+            listener.taskRemoved(removed);
+        }
+        return removed;
+    }
+
+    /**
+     * Updates the completion status of the task at the given index.
+     *
+     * @param index  The index of the task to update.
+     * @param isDone The new status of the task.
+     * @return The updated task.
+     * @throws DudeException If the index is out of range.
+     */
+    public synchronized Task markTask(int index, boolean isDone) throws DudeException {
+        validateIndex(taskList, index);
+        Task oldTask = taskList.get(index);
+        Task task = oldTask.withDone(isDone);
+        int id = replaceTask(index, oldTask, task);
+        if (isDone) {
+            doneIndex.add(id);
+        } else {
+            doneIndex.remove(id);
+        }
+        statistics.recordStatusChanged(task, oldTask.isDone());
+        removeFromUrgencyHeap(oldTask);
+        if (!isDone) {
+            addToUrgencyHeap(task, id);
+        }
+        for (TaskListListener listener : listeners) {
+            listener.taskChanged(oldTask, task);
+        }
+        return task;
+    }
+
+    /**
+     * Updates the priority of the task at the given index.
+     *
+     * @param index    The index of the task to update.
+     * @param priority The new priority of the task.
+     * @return The updated task.
+     * @throws DudeException If the index is out of range.
+     */
+    public synchronized Task setPriority(int index, Priority priority) throws DudeException {
+        validateIndex(taskList, index);
+        Task oldTask = taskList.get(index);
+        Task task = oldTask.withPriority(priority);
+        int id = replaceTask(index, oldTask, task);
+        removeFromUrgencyHeap(oldTask);
+        if (!task.isDone()) {
+            addToUrgencyHeap(task, id);
+        }
+        for (TaskListListener listener : listeners) {
+            listener.taskChanged(oldTask, task);
+        }
+        return task;
+    }
+
+    /**
+     * Puts the changed copy of a task in the place of the task, in the list and in the
+     * indexes that hold tasks rather than ids. The copy keeps the id of the task, so the
+     * bitmaps of ids only need changing where the change made them differ.
+     *
+     * @return The id of the task.
+     */
+    private int replaceTask(int index, Task oldTask, Task task) {
+        taskList = taskList.with(index, task);
+        int id = taskIds.remove(oldTask);
+        taskIds.put(task, id);
+        tasksById.put(id, task);
+        replaceInBucket(descriptionIndex, task.getTaskName(), oldTask, task);
+        if (task.getDate() != null) {
+            LocalDateTime date = Parser.parseDateTime(task.getDate());
+            if (date != null) {
+                replaceInBucket(dateIndex, date, oldTask, task);
+            } else {
+                replaceInBucket(unparsedDateIndex, task.getDate(), oldTask, task);
+            }
+        }
+        return id;
     }
 
-    public Task deleteTask(int index) throws DudeException {
-        validateIndex(index);
-        return taskList.remove(index);
+    /**
+     * Returns the most urgent tasks that are not done yet, most urgent first.
+     * Tasks are ranked by the date they are due, or for events, start, brought forward by
+     * a few days for higher priorities. Tasks without a recognised date are ranked as if
+     * due a fixed number of days from now, so they come before dated tasks that are further
+     * off. Tasks that rank the same are kept in the order they were added, with dated tasks
+     * before undated ones.
+     *
+     * @param count The number of tasks to return.
+     * @param now   The time that undated tasks are ranked from.
+     * @return Up to that many pending tasks.
+     */
+    public synchronized ArrayList<Task> getMostUrgentTasks(int count, LocalDateTime now) {
+        ArrayList<Task> datedTasks = urgencyHeap.getSmallest(count);
+        ArrayList<Task> undatedTasks = undatedUrgencyHeap.getSmallest(count);
+        long undatedOffset = now.plusDays(UNDATED_HORIZON_DAYS).toEpochSecond(ZoneOffset.UTC);
+        ArrayList<Task> urgentTasks = new ArrayList<>();
+        int dated = 0;
+        int undated = 0;
+        while (urgentTasks.size() < count && (dated < datedTasks.size() || undated < undatedTasks.size())) {
+            boolean isDatedFirst = undated == undatedTasks.size() || (dated < datedTasks.size()
+                    && getUrgencyKey(datedTasks.get(dated))
+                    <= undatedOffset + getUndatedUrgencyKey(undatedTasks.get(undated)));
+            urgentTasks.add(isDatedFirst ? datedTasks.get(dated++) : undatedTasks.get(undated++));
+        }
+        return urgentTasks;
     }
 
     public Task getTask(int index) throws DudeException {
-        validateIndex(index);
-        return taskList.get(index);
+        List<Task> snapshot = taskList;
+        validateIndex(snapshot, index);
+        return snapshot.get(index);
     }
 
-    public ArrayList<Task> getAllTasks() {
+    /**
+     * Returns an immutable snapshot of the tasks, which later changes to the list do not affect.
+     * Taking the snapshot does not copy anything, so it takes O(1) time.
+     */
+    public List<Task> getAllTasks() {
         return this.taskList;
     }
 
+    /**
+     * Returns the tasks selected by the given list options, in the requested order.
+     * Type, status and tag filters are answered from the bitmaps, while sorted and dated
+     * views are read off the ordered indexes. Unlike {@link #getAllTasks()}, this waits
+     * for any change in progress, as the indexes are only kept for the latest version.
+     *
+     * @param query The filtering and sorting options.
+     * @return The matching tasks.
+     */
+    public synchronized ArrayList<Task> getTasks(ListQuery query) {
+        RoaringBitmap selected = getSelectedIds(query);
+        ArrayList<Task> tasks = new ArrayList<>();
+        if (query.getDate() != null) {
+            addSelected(tasks, getTasksOn(query.getDate()), selected);
+            if (query.getSortOrder() == ListQuery.SortOrder.DESCRIPTION) {
+                tasks.sort((a, b) -> a.getTaskName().compareTo(b.getTaskName()));
+            }
+            return tasks;
+        }
+
+        switch (query.getSortOrder()) {
+        case DESCRIPTION:
+            for (ArrayList<Task> bucket : descriptionIndex.values()) {
+                addSelected(tasks, bucket, selected);
+            }
+            break;
+        case DATE:
+            for (ArrayList<Task> bucket : dateIndex.values()) {
+                addSelected(tasks, bucket, selected);
+            }
+            for (ArrayList<Task> bucket : unparsedDateIndex.values()) {
+                addSelected(tasks, bucket, selected);
+            }
+            // tasks without a date, such as todos, come last in list order
+            selected.and(undatedIndex).forEach(id -> tasks.add(tasksById.get(id)));
+            break;
+        default:
+            // ids are given out in list order, so this keeps the tasks in list order
+            selected.forEach(id -> tasks.add(tasksById.get(id)));
+            break;
+        }
+        return tasks;
+    }
+
+    /**
+     * Returns the counts of done and pending tasks of each type, and of overdue deadlines.
+     * The counts are kept up to date as the list changes, so this does not go through the list.
+     *
+     * @param now The time that deadlines are overdue after.
+     * @return The summary of the list.
+     */
+    public synchronized TaskSummary getSummary(LocalDateTime now) {
+        return statistics.getSummary(now);
+    }
+
     public int getSize() {
         return taskList.size();
     }
+
+    /**
+     * Returns the tasks on the given date. A recognised date matches every time on that day,
+     * while any other text has to match the task's date exactly.
+     */
+    private ArrayList<Task> getTasksOn(String date) {
+        ArrayList<Task> tasks = new ArrayList<>();
+        LocalDateTime parsed = Parser.parseDateTime(date);
+        if (parsed == null) {
+            tasks.addAll(unparsedDateIndex.getOrDefault(date, new ArrayList<>()));
+            return tasks;
+        }
+        LocalDate day = parsed.toLocalDate();
+        for (ArrayList<Task> bucket : dateIndex.subMap(day.atStartOfDay(), day.plusDays(1).atStartOfDay()).values()) {
+            tasks.addAll(bucket);
+        }
+        return tasks;
+    }
+
+    /**
+     * Combines the type, status and tag bitmaps into the set of ids selected by the query.
+     */
+    private RoaringBitmap getSelectedIds(ListQuery query) {
+        RoaringBitmap selected = allIndex;
+        if (query.getTypeSymbol() != null) {
+            selected = selected.and(typeIndex.getOrDefault(query.getTypeSymbol(), new RoaringBitmap()));
+        }
+        if (query.getIsDone() != null && query.getIsDone()) {
+            selected = selected.and(doneIndex);
+        } else if (query.getIsDone() != null) {
+            selected = selected.andNot(doneIndex);
+        }
+        if (query.getTagQuery() != null) {
+            selected = selected.and(query.getTagQuery().evaluate(this::getTagIds, allIndex));
+        }
+        return selected;
+    }
+
+    private void addToUrgencyHeap(Task task, int id) {
+        addToUrgencyHeap(task, task.getDate() == null ? null : Parser.parseDateTime(task.getDate()), id);
+    }
+
+    /**
+     * Adds a pending task to the heap it is ranked in, given its date as already parsed.
+     *
+     * @param task The task to rank.
+     * @param date The date of the task, or null if it has none that is recognised.
+     * @param id   The id of the task, which orders tasks that rank the same.
+     */
+    private void addToUrgencyHeap(Task task, LocalDateTime date, int id) {
+        if (date != null) {
+            urgencyHeap.add(task, getUrgencyKey(date, task.getPriority()), id);
+        } else {
+            undatedUrgencyHeap.add(task, getUndatedUrgencyKey(task), id);
+        }
+    }
+
+    private void removeFromUrgencyHeap(Task task) {
+        urgencyHeap.remove(task);
+        undatedUrgencyHeap.remove(task);
+    }
+
+    /**
+     * Returns the time a task with a recognised date is ranked as due by, in seconds,
+     * where smaller is more urgent. This does not depend on the current time, so the
+     * ranking stays the same as time passes and from one run to the next.
+     */
+    private static long getUrgencyKey(Task task) {
+        return getUrgencyKey(Parser.parseDateTime(task.getDate()), task.getPriority());
+    }
+
+    private static long getUrgencyKey(LocalDateTime due, Priority priority) {
+        return due.minusDays(priority.getLeadDays()).toEpochSecond(ZoneOffset.UTC);
+    }
+
+    /**
+     * Returns the time a task without a recognised date is ranked as due by, in seconds
+     * after the time it is ranked from, which only depends on its priority.
+     */
+    private static long getUndatedUrgencyKey(Task task) {
+        return getUrgencyKey(LocalDateTime.ofEpochSecond(0, 0, ZoneOffset.UTC), task.getPriority());
+    }
+
+    private RoaringBitmap getTagIds(String tag) {
+        if (tag.equals(TagQuery.DONE_TAG)) {
+            return doneIndex;
+        }
+        return tagIndex.getOrDefault(tag, new RoaringBitmap());
+    }
+
+    private void addSelected(ArrayList<Task> tasks, Collection<Task> candidates, RoaringBitmap selected) {
+        for (Task task : candidates) {
+            if (selected.contains(taskIds.get(task))) {
+                tasks.add(task);
+            }
+        }
+    }
+
+    private static <K> void addToBucket(TreeMap<K, ArrayList<Task>> index, K key, Task task) {
+        index.computeIfAbsent(key, k -> new ArrayList<>()).add(task);
+    }
+
+    private static <K> void replaceInBucket(TreeMap<K, ArrayList<Task>> index, K key, Task oldTask, Task task) {
+        ArrayList<Task> bucket = index.get(key);
+        bucket.set(bucket.indexOf(oldTask), task);
+    }
+
+    private static <K> void removeFromBucket(TreeMap<K, ArrayList<Task>> index, K key, Task task) {
+        ArrayList<Task> bucket = index.get(key);
+        if (bucket == null) {
+            return;
+        }
+        bucket.remove(task);
+        if (bucket.isEmpty()) {
+            index.remove(key);
+        }
+    }
 }
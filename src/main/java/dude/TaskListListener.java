@@ -0,0 +1,30 @@
+package dude;
+
+import dude.task.Task;
+
+/**
+ * Represents an observer of the changes made to a {@link TaskList}.
+ * The methods are called while the list is locked, right after the change is made,
+ * so they should return quickly and must not wait for other threads.
+ */
+public interface TaskListListener {
+
+    /**
+     * Called after a task is added to the list.
+     */
+    void taskAdded(Task task);
+
+    /**
+     * Called after a task is deleted from the list.
+     */
+    void taskRemoved(Task task);
+
+    /**
+     * Called after a task is replaced by a changed copy of it, as when it is marked,
+     * unmarked or given a new priority.
+     *
+     * @param oldTask The task as it was, which is no longer in the list.
+     * @param task    The changed copy that took its place.
+     */
+    void taskChanged(Task oldTask, Task task);
+}
@@ -0,0 +1,134 @@
+package dude;
+
+import dude.task.Task;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Keeps running counts of the tasks in a {@link TaskList}, so that a summary of the list
+ * can be given without going through it. The counts of tasks and of done tasks per type
+ * are updated in O(1) time on every change.
+ * Whether a deadline is overdue depends on the time as well as on the list, so the
+ * pending deadlines are also kept ordered by due time, together with the number of them
+ * that were due before the time of the last summary. Each summary only counts the
+ * deadlines that fell due since the one before it, so every deadline is counted as
+ * overdue once, rather than every deadline being checked on every summary.
+ */
+public class TaskStatistics {
+    private final Map<String, Integer> totalCounts;
+    private final Map<String, Integer> doneCounts;
+    private final TreeMap<LocalDateTime, Integer> pendingDeadlines;
+    private LocalDateTime overdueBefore;
+    private int overdueCount;
+
+    public TaskStatistics() {
+        this.totalCounts = new HashMap<>();
+        this.doneCounts = new HashMap<>();
+        this.pendingDeadlines = new TreeMap<>();
+        this.overdueBefore = LocalDateTime.MIN;
+        this.overdueCount = 0;
+    }
+
+    /**
+     * Counts a task that was added to the list.
+     */
+    public void recordAdded(Task task) {
+        totalCounts.merge(task.getTypeSymbol(), 1, Integer::sum);
+        if (task.isDone()) {
+            doneCounts.merge(task.getTypeSymbol(), 1, Integer::sum);
+        } else {
+            addPendingDeadline(task);
+        }
+    }
+
+    /**
+     * Stops counting a task that was deleted from the list.
+     */
+    public void recordRemoved(Task task) {
+        totalCounts.merge(task.getTypeSymbol(), -1, Integer::sum);
+        if (task.isDone()) {
+            doneCounts.merge(task.getTypeSymbol(), -1, Integer::sum);
+        } else {
+            removePendingDeadline(task);
+        }
+    }
+
+    /**
+     * Updates the counts after a task was marked or unmarked.
+     *
+     * @param task    The task, with its new status.
+     * @param wasDone The status of the task before the change.
+     */
+    public void recordStatusChanged(Task task, boolean wasDone) {
+        if (task.isDone() == wasDone) {
+            return;
+        }
+        if (task.isDone()) {
+            doneCounts.merge(task.getTypeSymbol(), 1, Integer::sum);
+            removePendingDeadline(task);
+        } else {
+            doneCounts.merge(task.getTypeSymbol(), -1, Integer::sum);
+            addPendingDeadline(task);
+        }
+    }
+
+    /**
+     * Returns the counts as they are now.
+     *
+     * @param now The time that deadlines are overdue after.
+     * @return The summary of the list.
+     */
+    public TaskSummary getSummary(LocalDateTime now) {
+        if (now.isAfter(overdueBefore)) {
+            overdueCount += countDeadlines(overdueBefore, now);
+        } else {
+            // the clock was turned back
+            overdueCount -= countDeadlines(now, overdueBefore);
+        }
+        overdueBefore = now;
+        return new TaskSummary(new HashMap<>(totalCounts), new HashMap<>(doneCounts), overdueCount);
+    }
+
+    private int countDeadlines(LocalDateTime from, LocalDateTime to) {
+        int count = 0;
+        for (int deadlines : pendingDeadlines.subMap(from, true, to, false).values()) {
+            count += deadlines;
+        }
+        return count;
+    }
+
+    private void addPendingDeadline(Task task) {
+        LocalDateTime due = getDueTime(task);
+        if (due == null) {
+            return;
+        }
+        pendingDeadlines.merge(due, 1, Integer::sum);
+        if (due.isBefore(overdueBefore)) {
+            overdueCount++;
+        }
+    }
+
+    private void removePendingDeadline(Task task) {
+        LocalDateTime due = getDueTime(task);
+        if (due == null) {
+            return;
+        }
+        pendingDeadlines.computeIfPresent(due, (k, count) -> count == 1 ? null : count - 1);
+        if (due.isBefore(overdueBefore)) {
+            overdueCount--;
+        }
+    }
+
+    /**
+     * Returns when the task is due if it is a deadline with a recognised date, or null otherwise.
+     */
+    private static LocalDateTime getDueTime(Task task) {
+        if (!task.getTypeSymbol().equals("D")) {
+            return null;
+        }
+        return Parser.parseDateTime(task.getDate());
+    }
+}
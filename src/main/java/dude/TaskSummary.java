@@ -0,0 +1,59 @@
+package dude;
+
+import java.util.Map;
+
+/**
+ * Represents the counts of done and pending tasks in the list at one point in time.
+ */
+public class TaskSummary {
+    private final Map<String, Integer> totalCounts;
+    private final Map<String, Integer> doneCounts;
+    private final int overdueCount;
+
+    /**
+     * Initializes a new TaskSummary.
+     *
+     * @param totalCounts  The number of tasks of each type, keyed by type symbol.
+     * @param doneCounts   The number of done tasks of each type, keyed by type symbol.
+     * @param overdueCount The number of pending deadlines that are past due.
+     */
+    public TaskSummary(Map<String, Integer> totalCounts, Map<String, Integer> doneCounts, int overdueCount) {
+        this.totalCounts = totalCounts;
+        this.doneCounts = doneCounts;
+        this.overdueCount = overdueCount;
+    }
+
+    /**
+     * Returns the number of done tasks of the given type ("T", "D" or "E").
+     */
+    public int getDoneCount(String typeSymbol) {
+        return doneCounts.getOrDefault(typeSymbol, 0);
+    }
+
+    /**
+     * Returns the number of tasks of the given type ("T", "D" or "E") that are not done.
+     */
+    public int getPendingCount(String typeSymbol) {
+        return totalCounts.getOrDefault(typeSymbol, 0) - getDoneCount(typeSymbol);
+    }
+
+    public int getOverdueCount() {
+        return overdueCount;
+    }
+
+    public int getTotalCount() {
+        return totalCounts.values().stream().mapToInt(Integer::intValue).sum();
+    }
+
+    public int getDoneCount() {
+        return doneCounts.values().stream().mapToInt(Integer::intValue).sum();
+    }
+
+    /**
+     * Returns the percentage of tasks that are done, or 0 if there are no tasks.
+     */
+    public int getCompletionPercentage() {
+        int total = getTotalCount();
+        return total == 0 ? 0 : (int) Math.round(100.0 * getDoneCount() / total);
+    }
+}
@@ -0,0 +1,187 @@
+package dude;
+
+import java.util.ArrayList;
+
+/**
+ * Represents a hierarchical timing wheel, which keeps timers ordered by the tick they expire on.
+ * Each level is a ring of 64 slots, and each slot on a level spans a whole turn of the level
+ * below it. A timer is filed in the lowest level whose span covers its delay, and moves down a
+ * level each time the level below comes round to it. Scheduling and cancelling a timer take
+ * O(1) time, and advancing the wheel only visits the slots that the ticks pass over.
+ *
+ * @param <T> The type of the items that the timers carry.
+ */
+public class TimingWheel<T> {
+    private static final int SLOT_BITS = 6;
+    private static final int SLOTS = 1 << SLOT_BITS;
+    private static final int SLOT_MASK = SLOTS - 1;
+    private static final int LEVELS = 5;
+    private static final long MAX_DELAY = (1L << (SLOT_BITS * LEVELS)) - 1;
+
+    private final Timer<T>[][] slots;
+    private long currentTick;
+    private int count;
+
+    /**
+     * Represents an item scheduled to expire on a given tick.
+     * It is also the handle used to cancel the item.
+     *
+     * @param <T> The type of the item.
+     */
+    public static class Timer<T> {
+        private final T item;
+        private final long expiryTick;
+        private Timer<T> previous;
+        private Timer<T> next;
+        private int level = -1;
+        private int slot;
+
+        private Timer(T item, long expiryTick) {
+            this.item = item;
+            this.expiryTick = expiryTick;
+        }
+
+        public T getItem() {
+            return item;
+        }
+
+        public long getExpiryTick() {
+            return expiryTick;
+        }
+    }
+
+    /**
+     * Initializes an empty wheel.
+     *
+     * @param currentTick The tick the wheel starts at.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public TimingWheel(long currentTick) {
+        this.slots = (Timer<T>[][]) new Timer[LEVELS][SLOTS];
+        this.currentTick = currentTick;
+    }
+
+    /**
+     * Schedules an item to expire on the given tick. An item due on or before the current
+     * tick expires on the next tick.
+     *
+     * @param item       The item to be scheduled.
+     * @param expiryTick The tick it expires on.
+     * @return The handle for cancelling the timer.
+     */
+    public Timer<T> schedule(T item, long expiryTick) {
+        Timer<T> timer = new Timer<>(item, expiryTick);
+        insert(timer, 1);
+        count++;
+        return timer;
+    }
+
+    /**
+     * Cancels a timer that has not expired yet. Cancelling it again has no effect.
+     *
+     * @param timer The handle returned when the timer was scheduled.
+     */
+    public void cancel(Timer<T> timer) {
+        if (timer.level < 0) {
+            return;
+        }
+        unlink(timer);
+        count--;
+    }
+
+    /**
+     * Moves the wheel forward to the given tick.
+     *
+     * @param tick The tick to advance to.
+     * @return The items that expired, in the order of their expiry ticks.
+     */
+    public ArrayList<T> advanceTo(long tick) {
+        ArrayList<T> expired = new ArrayList<>();
+        while (currentTick < tick) {
+            currentTick++;
+            cascade();
+            Timer<T> timer = slots[0][(int) (currentTick & SLOT_MASK)];
+            while (timer != null) {
+                Timer<T> next = timer.next;
+                unlink(timer);
+                count--;
+                expired.add(timer.item);
+                timer = next;
+            }
+            if (count == 0) {
+                // nothing left to expire, so jump straight to the target tick
+                currentTick = tick;
+            }
+        }
+        return expired;
+    }
+
+    public long getCurrentTick() {
+        return currentTick;
+    }
+
+    public int getSize() {
+        return count;
+    }
+
+    /**
+     * When the lower levels have come round to the start of a turn, moves the timers in the
+     * slot each higher level is now at down to where they belong.
+     */
+    private void cascade() {
+        for (int level = 1; level < LEVELS; level++) {
+            if ((currentTick & ((1L << (SLOT_BITS * level)) - 1)) != 0) {
+                return;
+            }
+            int slot = (int) ((currentTick >>> (SLOT_BITS * level)) & SLOT_MASK);
+            Timer<T> timer = slots[level][slot];
+            slots[level][slot] = null;
+            while (timer != null) {
+                Timer<T> next = timer.next;
+                timer.previous = null;
+                timer.next = null;
+                timer.level = -1;
+                insert(timer, 0);
+                timer = next;
+            }
+        }
+    }
+
+    /**
+     * Files a timer in the slot its expiry tick falls in, on the lowest level that spans its delay.
+     *
+     * @param minimumDelay The fewest ticks from now the timer can expire in. Timers moved down
+     *                     while the current tick is being processed can still expire on it.
+     */
+    private void insert(Timer<T> timer, long minimumDelay) {
+        long delay = Math.max(timer.expiryTick - currentTick, minimumDelay);
+        long targetTick = currentTick + Math.min(delay, MAX_DELAY);
+        int level = 0;
+        while (level < LEVELS - 1 && delay >= (1L << (SLOT_BITS * (level + 1)))) {
+            level++;
+        }
+        int slot = (int) ((targetTick >>> (SLOT_BITS * level)) & SLOT_MASK);
+        timer.level = level;
+        timer.slot = slot;
+        timer.previous = null;
+        timer.next = slots[level][slot];
+        if (timer.next != null) {
+            timer.next.previous = timer;
+        }
+        slots[level][slot] = timer;
+    }
+
+    private void unlink(Timer<T> timer) {
+        if (timer.previous != null) {
+            timer.previous.next = timer.next;
+        } else {
+            slots[timer.level][timer.slot] = timer.next;
+        }
+        if (timer.next != null) {
+            timer.next.previous = timer.previous;
+        }
+        timer.previous = null;
+        timer.next = null;
+        timer.level = -1;
+    }
+}
@@ -3,13 +3,15 @@ package dude;
 import dude.task.Task;
 
 import java.util.ArrayList;
+import java.util.List;
 import java.util.Scanner;
 
 /**
  * Manages the user interface and interaction for the application.
  * This class is responsible for reading user input via the scanner and
  * displaying formatted messages, errors, and task information to the
- * console.
+ * console. Messages may come from the threads that watch the save file and send
+ * reminders as well as from the command loop, so each is printed as a whole.
  */
 public class Ui {
     private static final String HORIZONTAL_LINE = "____________________________________";
@@ -26,11 +28,11 @@ public class Ui {
         this.in = new Scanner(System.in);
     }
 
-    public void showLine() {
+    public synchronized void showLine() {
         System.out.println(HORIZONTAL_LINE);
     }
 
-    public void showLogo() {
+    public synchronized void showLogo() {
         System.out.println(LOGO);
     }
 
@@ -47,7 +49,7 @@ public class Ui {
      * @param task The task that was just added.
      * @param size The total number of tasks currently in the list.
      */
-    public void showTaskCreated(Task task, int size) {
+    public synchronized void showTaskCreated(Task task, int size) {
         showLine();
         System.out.println("Dude I got it. I've added this task:\n" + task);
         System.out.println("Now you have " + size + " tasks in the list.");
@@ -60,19 +62,67 @@ public class Ui {
      * @param removedTask    The task that was deleted.
      * @param remainingCount The number of tasks left in the list.
      */
-    public void showTaskDeleted(Task removedTask, int remainingCount) {
+    public synchronized void showTaskDeleted(Task removedTask, int remainingCount) {
         showLine();
         System.out.println("Dude I've removed this task:\n" + removedTask);
         System.out.println("Now you have " + remainingCount + " tasks in the list.");
         showLine();
     }
 
+    /**
+     * Displays a message about tasks that another program added to the save file.
+     *
+     * @param mergedCount The number of tasks picked up from the file.
+     * @param size        The total number of tasks now in the list.
+     */
+    public synchronized void showTasksMerged(int mergedCount, int size) {
+        showLine();
+        System.out.println("Dude, I picked up " + mergedCount + " new tasks from the save file.");
+        System.out.println("Now you have " + size + " tasks in the list.");
+        showLine();
+    }
+
+    /**
+     * Displays a message confirming that the tasks were exported.
+     *
+     * @param count The number of tasks exported.
+     * @param path  The absolute path of the file written to.
+     */
+    public synchronized void showTasksExported(int count, String path) {
+        showLine();
+        System.out.println("Dude I've exported " + count + " tasks to " + path);
+        showLine();
+    }
+
+    /**
+     * Displays how many tasks were imported and the records that could not be.
+     *
+     * @param result The outcome of the import.
+     * @param size   The total number of tasks now in the list.
+     */
+    public synchronized void showImportResult(TaskImporter.ImportResult result, int size) {
+        showLine();
+        System.out.println("Dude I've imported " + result.getImportedCount() + " tasks.");
+        if (result.getErrorCount() > 0) {
+            System.out.println("I skipped " + result.getErrorCount() + " records I couldn't read:");
+            for (String error : result.getErrors()) {
+                System.out.println(" " + error);
+            }
+            int hiddenCount = result.getErrorCount() - result.getErrors().size();
+            if (hiddenCount > 0) {
+                System.out.println(" ...and " + hiddenCount + " more.");
+            }
+        }
+        System.out.println("Now you have " + size + " tasks in the list.");
+        showLine();
+    }
+
     /**
      * Displays all tasks in the provided list with their index numbers.
      *
      * @param tasks The list of tasks to be displayed.
      */
-    public void showTaskList(ArrayList<Task> tasks) {
+    public synchronized void showTaskList(List<Task> tasks) {
         showLine();
         System.out.println("Here are the tasks in your list:");
         for (int i = 0; i < tasks.size(); i++) {
@@ -81,8 +131,25 @@ public class Ui {
         showLine();
     }
 
+    /**
+     * Displays the tasks selected by a filtered or sorted list command.
+     *
+     * @param tasks The selected tasks, in the order they should be shown.
+     */
+    public synchronized void showFilteredTaskList(ArrayList<Task> tasks) {
+        showLine();
+        if (tasks.isEmpty()) {
+            System.out.println("Dude, no tasks in your list match those options.");
+        } else {
+            System.out.println("Here are the matching tasks in your list:");
+            for (int i = 0; i < tasks.size(); i++) {
+                System.out.println((i + 1) + "." + tasks.get(i));
+            }
+        }
+        showLine();
+    }
 
-    public void showGreeting(ArrayList<String> oldTasks) {
+    public synchronized void showGreeting(ArrayList<String> oldTasks) {
         showLine();
         showLogo();
         System.out.println("Hello! I'm Dude");
@@ -101,7 +168,7 @@ public class Ui {
      * @param isNew True if a new file was created, false if it already existed.
      * @param path  The absolute file path where the data is stored.
      */
-    public void showFileStatus(boolean isNew, String path) {
+    public synchronized void showFileStatus(boolean isNew, String path) {
         if (isNew) {
             System.out.println("File created at: " + path);
         } else {
@@ -115,7 +182,7 @@ public class Ui {
      * @param task   The task that was modified.
      * @param isDone The new status of the task.
      */
-    public void showMarkingFeedback(Task task, boolean isDone) {
+    public synchronized void showMarkingFeedback(Task task, boolean isDone) {
         String feedback = isDone
                 ? "Dude OKAY. I've marked this task as done:\n "
                 : "Dude really? I've marked this task as not done yet:\n";
@@ -125,10 +192,82 @@ public class Ui {
         showLine();
     }
 
+    /**
+     * Displays what was done to repair the save file on startup.
+     *
+     * @param repair A description of the repair.
+     */
+    public synchronized void showRecovery(String repair) {
+        showLine();
+        System.out.println("Dude, " + repair + ".");
+        showLine();
+    }
+
+    /**
+     * Displays the pending tasks to do next, most urgent first.
+     *
+     * @param tasks The most urgent pending tasks.
+     */
+    public synchronized void showNextTasks(ArrayList<Task> tasks) {
+        showLine();
+        if (tasks.isEmpty()) {
+            System.out.println("Dude, you have nothing left to do!");
+        } else {
+            System.out.println("Dude, here's what to do next:");
+            for (int i = 0; i < tasks.size(); i++) {
+                System.out.println((i + 1) + "." + tasks.get(i));
+            }
+        }
+        showLine();
+    }
+
+    /**
+     * Displays a message confirming the new priority of a task.
+     *
+     * @param task The task whose priority was changed.
+     */
+    public synchronized void showPriorityChanged(Task task) {
+        showLine();
+        System.out.println("Dude I've set the priority of this task to " + task.getPriority().getName() + ":");
+        System.out.println("  " + task);
+        showLine();
+    }
+
+    /**
+     * Displays the numbers of done and pending tasks of each type, and how much of the list is done.
+     *
+     * @param summary The counts to display.
+     */
+    public synchronized void showSummary(TaskSummary summary) {
+        showLine();
+        System.out.println("Dude, here's where you're at:");
+        System.out.println(" Todos: " + summary.getDoneCount("T") + " done, "
+                + summary.getPendingCount("T") + " pending");
+        System.out.println(" Deadlines: " + summary.getDoneCount("D") + " done, "
+                + summary.getPendingCount("D") + " pending (" + summary.getOverdueCount() + " overdue)");
+        System.out.println(" Events: " + summary.getDoneCount("E") + " done, "
+                + summary.getPendingCount("E") + " pending");
+        System.out.println("You've done " + summary.getDoneCount() + " of " + summary.getTotalCount()
+                + " tasks (" + summary.getCompletionPercentage() + "%).");
+        showLine();
+    }
+
+    /**
+     * Displays a reminder that a task is due soon.
+     *
+     * @param task The task that is due soon.
+     */
+    public synchronized void showReminder(Task task) {
+        showLine();
+        System.out.println("Dude, heads up! This one is coming up soon:");
+        System.out.println("  " + task);
+        showLine();
+    }
+
     /**
      * Displays a message confirming the creation of a data directory.
      */
-    public void showDirectoryCreated() {
+    public synchronized void showDirectoryCreated() {
         showLine();
         System.out.println("Dude I created a data directory");
         showLine();
@@ -139,7 +278,7 @@ public class Ui {
      *
      * @param results The list of tasks that matched the search.
      */
-    public void showSearchResults(ArrayList<Task> results) {
+    public synchronized void showSearchResults(ArrayList<Task> results) {
         showLine();
         if (results.isEmpty()) {
             System.out.println("Dude, I could not find any tasks matching that keyword.");
@@ -157,13 +296,13 @@ public class Ui {
      *
      * @param message The error message to be displayed.
      */
-    public void showError(String message) {
+    public synchronized void showError(String message) {
         showLine();
         System.out.println("Dude, " + message);
         showLine();
     }
 
-    public void showExit() {
+    public synchronized void showExit() {
         System.out.println("Dude that's it? Okay Bye. See you again soon I hope.");
         showLine();
     }
@@ -21,14 +21,29 @@ public class Deadline extends Task {
         return by;
     }
 
+    @Override
+    public String getTypeSymbol() {
+        return "D";
+    }
+
+    @Override
+    public String getDate() {
+        return by;
+    }
+
+    @Override
+    protected Task copyDetails() {
+        return new Deadline(getTaskName(), by);
+    }
+
     @Override
     public String toFileFormat() {
         String status = isDone() ? "1" : "0";
-        return "D | " + status + " | " + getTaskName() + " | " + this.by;
+        return "D | " + status + " | " + getTaskName() + " | " + this.by + getLabelsFileSuffix();
     }
 
     @Override
     public String toString() {
-        return "[D]" + super.toString() + " (by: " + by + ")";
+        return "[D]" + super.toString() + " (by: " + by + ")" + getLabelsDisplaySuffix();
     }
 }
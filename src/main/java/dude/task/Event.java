@@ -28,13 +28,29 @@ public class Event extends Task {
         return to;
     }
 
+    @Override
+    public String getTypeSymbol() {
+        return "E";
+    }
+
+    @Override
+    public String getDate() {
+        return from;
+    }
+
+    @Override
+    protected Task copyDetails() {
+        return new Event(getTaskName(), from, to);
+    }
+
     @Override
     public String toFileFormat() {
-        return "E | " + (isDone() ? "1" : "0") + " | " + getTaskName() + " | " + from + " | " + to;
+        return "E | " + (isDone() ? "1" : "0") + " | " + getTaskName() + " | " + from + " | " + to
+                + getLabelsFileSuffix();
     }
 
     @Override
     public String toString() {
-        return "[E]" + super.toString() + " (from: " + from + " to: " + to + ")";
+        return "[E]" + super.toString() + " (from: " + from + " to: " + to + ")" + getLabelsDisplaySuffix();
     }
 }
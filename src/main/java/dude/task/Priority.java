@@ -0,0 +1,41 @@
+package dude.task;
+
+/**
+ * Represents how important a task is. Tasks given no priority are ranked between medium
+ * and low ones.
+ */
+public enum Priority {
+    NONE(1), LOW(0), MEDIUM(3), HIGH(7);
+
+    private final int leadDays;
+
+    Priority(int leadDays) {
+        this.leadDays = leadDays;
+    }
+
+    /**
+     * Returns how many days earlier than its deadline a task of this priority is ranked as due.
+     */
+    public int getLeadDays() {
+        return leadDays;
+    }
+
+    /**
+     * Returns the name of the priority as written in commands, such as "high".
+     */
+    public String getName() {
+        return name().toLowerCase();
+    }
+
+    /**
+     * Returns the priority with the given name, ignoring case, or null if there is none.
+     */
+    public static Priority fromName(String name) {
+        for (Priority priority : values()) {
+            if (priority.getName().equalsIgnoreCase(name)) {
+                return priority;
+            }
+        }
+        return null;
+    }
+}
@@ -1,11 +1,19 @@
 package dude.task;
 
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
 /**
  * Represents a task with a task name and completion status.
+ * Once a task is in a task list it is not changed, as snapshots of the list share it;
+ * marking it or changing its priority replaces it with a changed copy instead.
  */
 public abstract class Task {
     private String taskName;
-    private boolean isDone;
+    private volatile boolean isDone;
+    private final Set<String> tags;
+    private volatile Priority priority;
 
     /**
      * Initializes a new Task with the given description.
@@ -15,6 +23,8 @@ public abstract class Task {
     public Task(String task) {
         this.taskName = task;
         isDone = false;
+        tags = new LinkedHashSet<>();
+        priority = Priority.NONE;
     }
 
     public boolean contains(String keyword) {
@@ -33,6 +43,108 @@ public abstract class Task {
         this.isDone = isDone;
     }
 
+    /**
+     * Returns a copy of the task with the given completion status, leaving this task as it is.
+     *
+     * @param isDone The status of the copy.
+     * @return The copy.
+     */
+    public Task withDone(boolean isDone) {
+        Task task = copy();
+        task.isDone = isDone;
+        return task;
+    }
+
+    /**
+     * Adds a tag to the task. Tags are kept in lower case without the leading #.
+     *
+     * @param tag The tag, with or without a leading #.
+     */
+    public void addTag(String tag) {
+        tags.add(tag.replaceFirst("^#", "").toLowerCase());
+    }
+
+    public Set<String> getTags() {
+        return Collections.unmodifiableSet(tags);
+    }
+
+    /**
+     * Returns the tags as they are written in commands, such as "#work #urgent".
+     */
+    public String getTagsText() {
+        StringBuilder text = new StringBuilder();
+        for (String tag : tags) {
+            if (text.length() > 0) {
+                text.append(' ');
+            }
+            text.append('#').append(tag);
+        }
+        return text.toString();
+    }
+
+    public Priority getPriority() {
+        return priority;
+    }
+
+    public void setPriority(Priority priority) {
+        this.priority = priority;
+    }
+
+    /**
+     * Returns a copy of the task with the given priority, leaving this task as it is.
+     *
+     * @param priority The priority of the copy.
+     * @return The copy.
+     */
+    public Task withPriority(Priority priority) {
+        Task task = copy();
+        task.priority = priority;
+        return task;
+    }
+
+    private Task copy() {
+        Task task = copyDetails();
+        task.isDone = isDone;
+        task.tags.addAll(tags);
+        task.priority = priority;
+        return task;
+    }
+
+    /**
+     * Returns a new task of the same type with the same description and dates.
+     */
+    protected abstract Task copyDetails();
+
+    /**
+     * Returns the tags followed by the priority, as they are written in commands,
+     * such as "#work #urgent !high".
+     */
+    public String getLabelsText() {
+        String tagsText = getTagsText();
+        if (priority == Priority.NONE) {
+            return tagsText;
+        }
+        return tagsText.isEmpty() ? "!" + priority.getName() : tagsText + " !" + priority.getName();
+    }
+
+    /**
+     * Returns the tags and priority as the last field of the save format,
+     * or nothing if there are no tags and no priority.
+     */
+    protected String getLabelsFileSuffix() {
+        String labelsText = getLabelsText();
+        return labelsText.isEmpty() ? "" : " | " + labelsText;
+    }
+
+    /**
+     * Returns the tags and priority as shown after the task in lists,
+     * or nothing if there are no tags and no priority.
+     */
+    protected String getLabelsDisplaySuffix() {
+        String labelsText = getLabelsText();
+        return labelsText.isEmpty() ? "" : " " + labelsText;
+    }
+
     /**
      * Returns a visual icon representing completion.
      *
@@ -42,6 +154,18 @@ public abstract class Task {
         return (isDone ? "X" : " ");
     }
 
+    /**
+     * Returns the single-letter code identifying the task type ("T", "D" or "E").
+     */
+    public abstract String getTypeSymbol();
+
+    /**
+     * Returns the date used to order and filter this task, or null if it has none.
+     */
+    public String getDate() {
+        return null;
+    }
+
     public abstract String toFileFormat();
 
     @Override
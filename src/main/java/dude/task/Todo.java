@@ -14,14 +14,24 @@ public class Todo extends Task {
         super(task);
     }
 
+    @Override
+    public String getTypeSymbol() {
+        return "T";
+    }
+
+    @Override
+    protected Task copyDetails() {
+        return new Todo(getTaskName());
+    }
+
     @Override
     public String toFileFormat() {
-        return "T | " + (isDone() ? "1" : "0") + " | " + getTaskName();
+        return "T | " + (isDone() ? "1" : "0") + " | " + getTaskName() + getLabelsFileSuffix();
     }
 
     @Override
     public String toString() {
-        return "[T]" + super.toString();
+        return "[T]" + super.toString() + getLabelsDisplaySuffix();
     }
 
 }